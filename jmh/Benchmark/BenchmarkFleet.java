@@ -0,0 +1,42 @@
+package Benchmark;
+
+import Model.Elevator;
+import Model.Floor;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A building of its own per benchmark state, so no run shares cars, floors or metrics with another
+class BenchmarkFleet {
+    final FloorService floorService;
+    final ElevatorService elevatorService;
+    final ElevatorManagementService elevatorManagementService;
+    final List<Elevator> elevators;
+
+    BenchmarkFleet(final int fleetSize, final int floorCount, final int tickParallelism) {
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("benchmark");
+        this.floorService = new FloorService();
+        this.elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        this.elevatorManagementService = new ElevatorManagementService(elevatorService, floorService,
+                elevatorMetrics, tickParallelism);
+
+        floorService.addFloors(0, floorCount - 1);
+        Floor groundFloor = floorService.getFloor(0);
+        Floor topFloor = floorService.getFloor(floorCount - 1);
+        for (int i = 1; i <= fleetSize; i++) {
+            elevatorService.addElevator(i, 10, groundFloor, groundFloor, topFloor);
+        }
+        this.elevators = new ArrayList<>(elevatorService.getElevators());
+    }
+
+    void stop() {
+        elevatorManagementService.stop();
+    }
+}
@@ -0,0 +1,38 @@
+package Benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+// Usage: BenchmarkRunner [--benchmarks a,b] [--fleet 10,100] [--floors 20,150] [--threads 1,4]
+// Runs the HotPathBenchmark methods once per thread count, as JMH takes a single -t per run. The tick sweep gives
+// each thread its own fleet, so more threads measure independent buildings side by side
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        Map<String, String> options = new HashMap<>();
+        options.put("--benchmarks", "requestElevator,addStoppingFloor,nextStop,moveToNextFloor,tickSweep");
+        options.put("--fleet", "10,100,1000");
+        options.put("--floors", "20,150");
+        options.put("--threads", "1," + Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        String include = HotPathBenchmark.class.getName() + "\\.("
+                + options.get("--benchmarks").replace(',', '|') + ")$";
+        for (String threads: new LinkedHashSet<>(Arrays.asList(options.get("--threads").split(",")))) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(include)
+                    .param("fleet", options.get("--fleet").split(","))
+                    .param("floors", options.get("--floors").split(","))
+                    .threads(Integer.parseInt(threads));
+            new Runner(builder.build()).run();
+        }
+    }
+}
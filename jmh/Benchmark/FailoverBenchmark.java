@@ -0,0 +1,112 @@
+package Benchmark;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Service.EtaDispatchStrategy;
+import Service.NearestCarDispatchStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// How long a 1,000-car bank takes to shed a multi-car outage: removing the failed cars from dispatch and handing
+// every call they held to the healthy cars in one pass. Each iteration reloads the bank and fails a fresh group, so
+// every measurement is one outage
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FailoverBenchmark {
+    private static final int FLOORS = 100;
+    private static final int FLEET_SIZE = 1000;
+    private static final int LOADED_CALLS = 5000;
+    private static final int PROBE_CALLS = 10000;
+
+    @Param({"nearest", "eta"})
+    public String strategy;
+
+    @Param({"1", "10", "100", "250"})
+    public int outage;
+
+    private BenchmarkFleet building;
+    private List<Integer> elevatorNumbers;
+    private List<Integer> failed;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        building = new BenchmarkFleet(FLEET_SIZE, FLOORS, 1);
+        building.elevatorManagementService.setDispatchStrategy("eta".equals(strategy)
+                ? new EtaDispatchStrategy() : new NearestCarDispatchStrategy());
+        elevatorNumbers = new ArrayList<>();
+        for (int i = 1; i <= FLEET_SIZE; i++) {
+            elevatorNumbers.add(i);
+        }
+        random = new Random(11);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        building.stop();
+    }
+
+    // Every car back in service and scattered, a load of calls spread over them, and the group that fails next
+    @Setup(Level.Iteration)
+    public void load() {
+        building.elevatorManagementService.changeElevatorCondition(elevatorNumbers, Condition.WORKING);
+        for (Elevator elevator: building.elevators) {
+            elevator.clearStoppingFloors();
+            elevator.setDirection(Direction.STOP);
+            elevator.setFloorAt(building.floorService.getFloor(random.nextInt(FLOORS)));
+        }
+        for (int i = 0; i < LOADED_CALLS; i++) {
+            int startingFloor = random.nextInt(FLOORS);
+            if (random.nextBoolean()) {
+                building.elevatorManagementService.requestElevator(startingFloor, random.nextInt(FLOORS));
+            } else {
+                building.elevatorManagementService.requestElevator(
+                        random.nextBoolean() ? Direction.UP : Direction.DOWN, startingFloor);
+            }
+        }
+        Collections.shuffle(elevatorNumbers, random);
+        failed = new ArrayList<>(elevatorNumbers.subList(0, outage));
+    }
+
+    @Benchmark
+    public int failover() {
+        return building.elevatorManagementService.changeElevatorCondition(failed, Condition.NOT_WORKING);
+    }
+
+    // Calls made after the outage must never land on a failed car
+    @TearDown(Level.Iteration)
+    public void probe() {
+        Set<Integer> out = new HashSet<>(failed);
+        for (int i = 0; i < PROBE_CALLS; i++) {
+            int assigned = building.elevatorManagementService.requestElevator(
+                    random.nextBoolean() ? Direction.UP : Direction.DOWN, random.nextInt(FLOORS));
+            if (out.contains(assigned)) {
+                throw new IllegalStateException("Call assigned to out-of-service elevator " + assigned);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package Benchmark;
+
+import Model.Direction;
+import Model.Elevator;
+import Service.EtaDispatchStrategy;
+import Service.RequestFrontEnd;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Panels and apps pressing buttons through the front end and waiting for the answer: throughput and the latency
+// distribution of one press, with presses answered by a car and presses admission control or the budget turned away
+// counted apart. Raise the pressure with JMH's -t
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class FrontEndBenchmark {
+    private static final int FLOORS = 50;
+    private static final int ELEVATORS = 64;
+
+    @State(Scope.Benchmark)
+    public static class FrontEnd {
+        @Param({"10000"})
+        public int maxInFlight;
+
+        @Param({"250"})
+        public long latencyBudgetMillis;
+
+        BenchmarkFleet building;
+        RequestFrontEnd requestFrontEnd;
+
+        // The ETA strategy finds a car for every call, so -1 only ever comes from the front end turning a press away
+        @Setup(Level.Trial)
+        public void setUp() {
+            building = new BenchmarkFleet(ELEVATORS, FLOORS, 1);
+            building.elevatorManagementService.setDispatchStrategy(new EtaDispatchStrategy());
+            requestFrontEnd = new RequestFrontEnd(building.elevatorManagementService, building.elevatorService,
+                    building.floorService, maxInFlight, latencyBudgetMillis);
+        }
+
+        // Nothing moves the cars, so routes are emptied between iterations to keep them from growing without end
+        @TearDown(Level.Iteration)
+        public void clearRoutes() {
+            for (Elevator elevator: building.elevators) {
+                elevator.clearStoppingFloors();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            requestFrontEnd.shutdown();
+            building.stop();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Presses {
+        public long answered;
+        public long turnedAway;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            answered = 0;
+            turnedAway = 0;
+        }
+    }
+
+    // One press in four is a car button, the rest hall calls
+    @Benchmark
+    public int press(final FrontEnd frontEnd, final Presses presses) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int assigned;
+        if (random.nextInt(4) == 0) {
+            assigned = frontEnd.requestFrontEnd.requestStop(1 + random.nextInt(ELEVATORS), random.nextInt(FLOORS))
+                    .join();
+        } else {
+            assigned = frontEnd.requestFrontEnd.requestElevator(
+                    random.nextBoolean() ? Direction.UP : Direction.DOWN, random.nextInt(FLOORS)).join();
+        }
+        if (assigned == -1) {
+            presses.turnedAway++;
+        } else {
+            presses.answered++;
+        }
+        return assigned;
+    }
+}
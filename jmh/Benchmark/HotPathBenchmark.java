@@ -0,0 +1,167 @@
+package Benchmark;
+
+import Model.Direction;
+import Model.Elevator;
+import Service.LookScheduling;
+import Service.StopSchedulingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Dispatch, stop insertion, next-stop selection, single-car moves and whole-fleet ticks, per fleet size and floor
+// count; the thread count is JMH's -t, or --threads of BenchmarkRunner
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        @Param({"10", "100", "1000"})
+        public int fleet;
+
+        @Param({"20", "150"})
+        public int floors;
+
+        BenchmarkFleet building;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            building = new BenchmarkFleet(fleet, floors, 1);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            building.stop();
+        }
+    }
+
+    // Every car stops at every third floor, so next-stop selection has a route to search
+    @State(Scope.Benchmark)
+    public static class Routes {
+        @Param({"10", "100", "1000"})
+        public int fleet;
+
+        @Param({"20", "150"})
+        public int floors;
+
+        BenchmarkFleet building;
+        StopSchedulingStrategy look;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            building = new BenchmarkFleet(fleet, floors, 1);
+            look = new LookScheduling();
+            for (Elevator elevator: building.elevators) {
+                for (int i = 0; i < floors; i += 3) {
+                    elevator.addStoppingFloor(i);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            building.stop();
+        }
+    }
+
+    // Each thread ticks a fleet of its own; workers is the tick engine's parallelism within one tick
+    @State(Scope.Thread)
+    public static class Sweep {
+        @Param({"10", "100", "1000"})
+        public int fleet;
+
+        @Param({"20", "150"})
+        public int floors;
+
+        @Param({"1", "4"})
+        public int workers;
+
+        BenchmarkFleet building;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            building = new BenchmarkFleet(fleet, floors, workers);
+        }
+
+        // Outside the measured time: every car is sent to every floor again
+        @Setup(Level.Invocation)
+        public void refill() {
+            for (Elevator elevator: building.elevators) {
+                for (int i = 0; i < floors; i++) {
+                    elevator.assignHallCall(building.floorService.getFloor(i));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            building.stop();
+        }
+    }
+
+    @Benchmark
+    public void requestElevator(final Fleet state, final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        blackhole.consume(state.building.elevatorManagementService.requestElevator(
+                random.nextBoolean() ? Direction.UP : Direction.DOWN, random.nextInt(state.floors)));
+    }
+
+    @Benchmark
+    public void addStoppingFloor(final Fleet state, final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Elevator elevator = state.building.elevators.get(random.nextInt(state.fleet));
+        elevator.addStoppingFloor(random.nextInt(state.floors));
+        int stops = elevator.getStoppingFloors().size();
+        if (stops > state.floors / 2) {
+            elevator.clearStoppingFloors();
+        }
+        blackhole.consume(stops);
+    }
+
+    @Benchmark
+    public void nextStop(final Routes state, final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Elevator elevator = state.building.elevators.get(random.nextInt(state.fleet));
+        blackhole.consume(state.look.selectNextStop(random.nextInt(state.floors),
+                random.nextBoolean() ? Direction.UP : Direction.DOWN,
+                elevator.getSnapshot().getStoppingFloors(), 0, state.floors - 1));
+    }
+
+    @Benchmark
+    public void moveToNextFloor(final Fleet state, final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Elevator elevator = state.building.elevators.get(random.nextInt(state.fleet));
+        elevator.assignHallCall(state.building.floorService.getFloor(random.nextInt(state.floors)));
+        state.building.elevatorService.moveToNextFloor(elevator);
+        blackhole.consume(elevator.getStateVersion());
+    }
+
+    // One invocation ticks until every car has served every floor, about floors + 1 ticks, so a tick costs this
+    // divided by that; the sweep is long enough that timing each invocation costs nothing measurable
+    @Benchmark
+    public void tickSweep(final Sweep state, final Blackhole blackhole) {
+        int ticks = 0;
+        while (state.building.elevatorManagementService.getTickEngine().getActiveElevators() > 0) {
+            state.building.elevatorManagementService.moveElevators();
+            ticks++;
+        }
+        blackhole.consume(ticks);
+    }
+}
@@ -0,0 +1,87 @@
+package Benchmark;
+
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Finding the nearest car by ranking the whole fleet, as assignment did before the index, against the index
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexedDispatchBenchmark {
+    private static final int FLOORS = 100;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fleet;
+
+    private BenchmarkFleet building;
+
+    // Cars are spread over the building, two in three with a call to answer
+    @Setup(Level.Trial)
+    public void setUp() {
+        building = new BenchmarkFleet(fleet, FLOORS, 1);
+        Random random = new Random(42);
+        for (Elevator elevator: building.elevators) {
+            elevator.setFloorAt(building.floorService.getFloor(random.nextInt(FLOORS)));
+            elevator.setDirection(Direction.STOP);
+            if (random.nextInt(3) > 0) {
+                elevator.assignHallCall(building.floorService.getFloor(random.nextInt(FLOORS)));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        building.stop();
+    }
+
+    @Benchmark
+    public void scan(final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        int floor = random.nextInt(FLOORS);
+
+        List<Elevator> elevators = new ArrayList<>(building.elevatorService.getAllElevator());
+        Elevator nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (Elevator elevator: elevators) {
+            ElevatorPosition position = new ElevatorPosition(elevator);
+            int distance = position.getDistance(direction, floor);
+            if (position.canServe(floor) && distance >= 0 && distance < nearestDistance) {
+                nearest = elevator;
+                nearestDistance = distance;
+            }
+        }
+        blackhole.consume(nearest);
+    }
+
+    @Benchmark
+    public void index(final Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        blackhole.consume(building.elevatorService.findNearestElevator(
+                random.nextBoolean() ? Direction.UP : Direction.DOWN, random.nextInt(FLOORS)));
+    }
+}
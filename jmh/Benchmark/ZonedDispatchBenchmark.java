@@ -0,0 +1,158 @@
+package Benchmark;
+
+import Model.Elevator;
+import Model.ElevatorPosition;
+import Model.Floor;
+import Model.HallCall;
+import Model.LogLevel;
+import Model.Zone;
+import Service.DispatchStrategy;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EtaDispatchStrategy;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.NearestCarDispatchStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A 120-floor tower served either by one bank whose cars stop everywhere, or by four zones: low and mid from the
+// ground lobby, and upper and top from a sky lobby at floor 60 reached by express shuttles. Measures one dispatch
+// decision with each strategy, and for ETA also ranking every car in the building as before zones had partitions
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZonedDispatchBenchmark {
+    private static final int FLOORS = 120;
+    private static final int SKY_LOBBY = 60;
+    private static final int CALLS = 4096;
+
+    @Param({"50", "500", "5000"})
+    public int fleet;
+
+    @Param({"one-bank", "zoned"})
+    public String layout;
+
+    private ElevatorService elevatorService;
+    private HallCall[] calls;
+    private int next;
+    private final DispatchStrategy nearest = new NearestCarDispatchStrategy();
+    private final DispatchStrategy eta = new EtaDispatchStrategy();
+    private final DispatchStrategy scanningEta = new ScanningEtaStrategy();
+
+    // Cars sit on a random floor they serve, two in three with a call to answer, and calls are routed as riders'
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        Zone[] zones = {
+                new Zone("low", 1, 29, 0),
+                new Zone("mid", 30, 59, 0),
+                new Zone("shuttle", SKY_LOBBY, SKY_LOBBY, 0),
+                new Zone("upper", 61, 89, SKY_LOBBY),
+                new Zone("top", 90, FLOORS - 1, SKY_LOBBY)};
+        boolean zoned = "zoned".equals(layout);
+
+        Random random = new Random(42);
+        FloorService floorService = new FloorService();
+        elevatorService = new ElevatorService(floorService, new ElevatorMetrics("zoned"));
+        floorService.addFloors(0, FLOORS - 1);
+        Floor groundFloor = floorService.getFloor(0);
+        for (int i = 1; i <= fleet; i++) {
+            if (zoned) {
+                Zone zone = zones[i % zones.length];
+                elevatorService.addElevator(i, 12, floorService.getFloor(zone.getMinFloor()), zone);
+            } else {
+                elevatorService.addElevator(i, 12, groundFloor, groundFloor, floorService.getFloor(FLOORS - 1));
+            }
+        }
+        for (Elevator elevator: elevatorService.getElevators()) {
+            int[] served = servedFloors(elevator);
+            elevator.setFloorAt(floorService.getFloor(served[random.nextInt(served.length)]));
+            if (random.nextInt(3) > 0) {
+                elevator.assignHallCall(floorService.getFloor(served[random.nextInt(served.length)]));
+            }
+        }
+
+        calls = new HallCall[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            int startingFloor = random.nextInt(FLOORS);
+            int destinationFloor = random.nextInt(FLOORS);
+            if (destinationFloor == startingFloor) {
+                destinationFloor = (startingFloor + 1) % FLOORS;
+            }
+            calls[i] = new HallCall(startingFloor, elevatorService.getZoneRouter().nextLeg(startingFloor,
+                    destinationFloor));
+        }
+    }
+
+    @Benchmark
+    public void nearest(final Blackhole blackhole) {
+        blackhole.consume(nearest.selectElevator(elevatorService, nextCall()));
+    }
+
+    @Benchmark
+    public void eta(final Blackhole blackhole) {
+        blackhole.consume(eta.selectElevator(elevatorService, nextCall()));
+    }
+
+    @Benchmark
+    public void scanningEta(final Blackhole blackhole) {
+        blackhole.consume(scanningEta.selectElevator(elevatorService, nextCall()));
+    }
+
+    private HallCall nextCall() {
+        next = (next + 1) & (CALLS - 1);
+        return calls[next];
+    }
+
+    private static int[] servedFloors(final Elevator elevator) {
+        if (elevator.getZone() != null) {
+            return elevator.getZone().getServedFloors();
+        }
+        int[] floors = new int[elevator.getMaxFloor().getFloorNumber() - elevator.getMinFloor().getFloorNumber() + 1];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = elevator.getMinFloor().getFloorNumber() + i;
+        }
+        return floors;
+    }
+
+    // ETA ranking as it ran before zones had their own partitions: every car in the building is checked
+    private static class ScanningEtaStrategy extends EtaDispatchStrategy {
+        @Override
+        public ElevatorPosition selectElevator(final ElevatorService elevatorService, final HallCall hallCall) {
+            ElevatorPosition best = null;
+            double bestCost = Double.MAX_VALUE;
+            for (Elevator elevator: elevatorService.getElevators()) {
+                ElevatorPosition position = new ElevatorPosition(elevator);
+                if (position.getLoadFactor() >= elevatorService.getFullLoadFraction()
+                        || !position.canServe(hallCall.getStartingFloor())
+                        || !position.canServe(hallCall.getDestinationFloor())) {
+                    continue;
+                }
+                double cost = getCost(position.getSnapshot(), hallCall);
+                if (cost < bestCost) {
+                    best = position;
+                    bestCost = cost;
+                }
+            }
+            return best;
+        }
+    }
+}
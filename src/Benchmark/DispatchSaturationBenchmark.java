@@ -0,0 +1,128 @@
+package Benchmark;
+
+import Model.Elevator;
+import Model.Floor;
+import Model.HallCall;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.LatencyHistogram;
+import Simulation.TrafficGenerator;
+import Simulation.TrafficPattern;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Usage: DispatchSaturationBenchmark [pattern] [producers] [fleet] [floors] [max calls per second]
+// Producers call requestElevator open loop with the pattern's riders at doubling Poisson rates, two seconds each,
+// while the tick engine moves the cars. Latency runs from when a call was due, not when it was made, so falling
+// behind shows up as latency. A rate saturates dispatch once the calls made fall below 95% of those offered, or the
+// 99th percentile passes both 1 ms and ten times the first rate's
+public class DispatchSaturationBenchmark {
+    private static final int FIRST_RATE = 10000;
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long TICK_PERIOD_MILLIS = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        TrafficPattern pattern = args.length > 0 ? TrafficPattern.valueOf(args[0].toUpperCase(Locale.ROOT))
+                : TrafficPattern.UP_PEAK;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int fleet = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int floors = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int maxRate = args.length > 4 ? Integer.parseInt(args[4]) : 5120000;
+
+        FloorService floorService = new FloorService();
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("saturation");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(elevatorService,
+                floorService, elevatorMetrics, 1);
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        floorService.addFloors(0, floors - 1);
+        Floor lobby = floorService.getFloor(0);
+        for (int i = 1; i <= fleet; i++) {
+            elevatorService.addElevator(i, 10, lobby, lobby, floorService.getFloor(floors - 1));
+        }
+        elevatorManagementService.getTickEngine().setTickPeriodMillis(TICK_PERIOD_MILLIS);
+        elevatorManagementService.getTickEngine().start();
+
+        console.printf("%s producers=%d fleet=%d floors=%d, %d s per rate%n", pattern, producers, fleet, floors,
+                TimeUnit.NANOSECONDS.toSeconds(RUN_NANOS));
+        // The first rate doubles as warm-up
+        run(elevatorManagementService, elevatorService, pattern, floors, FIRST_RATE, producers, 0,
+                new LatencyHistogram());
+
+        long firstP99 = -1;
+        int lastKeptUp = -1;
+        for (int rate = FIRST_RATE; rate <= maxRate; rate *= 2) {
+            LatencyHistogram latency = new LatencyHistogram();
+            long start = System.nanoTime();
+            long calls = run(elevatorManagementService, elevatorService, pattern, floors, rate, producers, rate,
+                    latency);
+            double achieved = calls * 1e9 / (System.nanoTime() - start);
+            long p99 = latency.getValueAtPercentile(99);
+            if (firstP99 < 0) {
+                firstP99 = p99;
+            }
+            boolean saturated = achieved < 0.95 * rate
+                    || p99 > Math.max(TimeUnit.MILLISECONDS.toNanos(1), 10 * firstP99);
+
+            console.printf("offered=%d/s achieved=%.0f/s p50=%dus p99=%dus max=%dus%s%n", rate, achieved,
+                    latency.getValueAtPercentile(50) / 1000, p99 / 1000, latency.getMax() / 1000,
+                    saturated ? " SATURATED" : "");
+            if (saturated) {
+                console.printf(lastKeptUp < 0 ? "dispatch is saturated at the first rate%n"
+                        : "dispatch saturates between %d and %d calls/s%n", lastKeptUp, rate);
+                break;
+            }
+            lastKeptUp = rate;
+        }
+        System.exit(0);
+    }
+
+    private static long run(final ElevatorManagementService elevatorManagementService,
+                            final ElevatorService elevatorService, final TrafficPattern pattern, final int floors,
+                            final int rate, final int producers, final long seed, final LatencyHistogram latency)
+            throws InterruptedException {
+        AtomicLong calls = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(producers);
+        long start = System.nanoTime();
+
+        for (int producer = 0; producer < producers; producer++) {
+            // Each producer offers an equal share; Poisson streams add up to one at the full rate
+            TrafficGenerator trafficGenerator = new TrafficGenerator(pattern, 0, floors - 1, (double) rate / producers,
+                    seed * producers + producer);
+            new Thread(() -> {
+                long made = 0;
+                for (HallCall hallCall = trafficGenerator.next(); trafficGenerator.getNanos() < RUN_NANOS;
+                     hallCall = trafficGenerator.next()) {
+                    long due = start + trafficGenerator.getNanos();
+                    long wait = due - System.nanoTime();
+                    if (wait > 50000) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    elevatorManagementService.requestElevator(hallCall);
+                    latency.record(System.nanoTime() - due);
+                    made++;
+                }
+                calls.addAndGet(made);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        for (Elevator elevator: elevatorService.getElevators()) {
+            elevator.clearStoppingFloors();
+        }
+        return calls.get();
+    }
+}
@@ -0,0 +1,78 @@
+package Benchmark;
+
+import Model.Direction;
+import Model.Floor;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DispatchThroughputBenchmark {
+    private static final int FLOORS = 50;
+    private static final int ELEVATORS = 64;
+    private static final long RUN_MILLIS = 2000;
+
+    public static void main(String[] args) throws InterruptedException {
+        ElevatorManagementService elevatorManagementService = ElevatorManagementService.getInstance();
+        ElevatorService elevatorService = ElevatorService.getInstance();
+        FloorService floorService = FloorService.getInstance();
+
+        for (int i = 0; i < FLOORS; i++) {
+            floorService.addFloor(i);
+        }
+        Floor groundFloor = floorService.getFloor(0);
+        Floor topFloor = floorService.getFloor(FLOORS - 1);
+        for (int i = 1; i <= ELEVATORS; i++) {
+            elevatorService.addElevator(i, 10, groundFloor, groundFloor, topFloor);
+        }
+
+        // Console output is not what we are measuring here
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        run(elevatorManagementService, 1);
+        for (int threads: threadCounts) {
+            long calls = run(elevatorManagementService, threads);
+            console.printf("threads=%d calls/sec=%d%n", threads, calls * 1000 / RUN_MILLIS);
+        }
+        System.exit(0);
+    }
+
+    private static long run(final ElevatorManagementService elevatorManagementService, final int threads)
+            throws InterruptedException {
+        LongAdder calls = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+                    elevatorManagementService.requestElevator(direction, random.nextInt(FLOORS));
+                    calls.increment();
+                }
+                done.countDown();
+            }).start();
+        }
+
+        done.await();
+        return calls.sum();
+    }
+}
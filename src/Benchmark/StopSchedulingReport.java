@@ -0,0 +1,108 @@
+package Benchmark;
+
+import Model.Direction;
+import Model.Elevator;
+import Model.Floor;
+import Model.LogLevel;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.LookScheduling;
+import Service.LowestStopFirstScheduling;
+import Service.ScanScheduling;
+import Service.StopSchedulingStrategy;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class StopSchedulingReport {
+    private static final int FLOORS = 40;
+    private static final int CALLS = 20000;
+    private static final double CALLS_PER_SECOND = 0.05;
+    private static final double SECONDS_PER_FLOOR = 1.5;
+    private static final double DWELL_SECONDS = 8;
+
+    public static void main(String[] args) {
+        ElevatorService elevatorService = ElevatorService.getInstance();
+        FloorService floorService = FloorService.getInstance();
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        for (int i = 0; i < FLOORS; i++) {
+            floorService.addFloor(i);
+        }
+        Floor groundFloor = floorService.getFloor(0);
+        elevatorService.addElevator(1, 20, groundFloor, groundFloor, floorService.getFloor(FLOORS - 1));
+        Elevator elevator = elevatorService.getElevators().iterator().next();
+
+        // One fixed trace of stop requests replayed against every strategy
+        Random random = new Random(7);
+        double[] callTimes = new double[CALLS];
+        int[] callFloors = new int[CALLS];
+        double time = 0;
+        for (int i = 0; i < CALLS; i++) {
+            time += -Math.log(1 - random.nextDouble()) / CALLS_PER_SECOND;
+            callTimes[i] = time;
+            callFloors[i] = random.nextInt(FLOORS);
+        }
+
+        console.printf("%-20s %12s %12s %16s%n", "strategy", "avg wait s", "p99 wait s", "floors travelled");
+        report(console, "lowest-stop-first", new LowestStopFirstScheduling(), elevatorService, floorService, elevator,
+                callTimes, callFloors);
+        report(console, "look", new LookScheduling(), elevatorService, floorService, elevator, callTimes, callFloors);
+        report(console, "scan", new ScanScheduling(), elevatorService, floorService, elevator, callTimes, callFloors);
+    }
+
+    private static void report(final PrintStream console, final String name, final StopSchedulingStrategy strategy,
+                               final ElevatorService elevatorService, final FloorService floorService,
+                               final Elevator elevator, final double[] callTimes, final int[] callFloors) {
+        elevatorService.setStopSchedulingStrategy(strategy);
+        elevator.clearStoppingFloors();
+        elevator.setFloorAt(floorService.getFloor(0));
+        elevator.setDirection(Direction.STOP);
+
+        List<List<Double>> pendingCalls = new ArrayList<>();
+        for (int i = 0; i < FLOORS; i++) {
+            pendingCalls.add(new ArrayList<>());
+        }
+        double[] waits = new double[CALLS];
+        int served = 0;
+        int next = 0;
+        long floorsTravelled = 0;
+        double now = 0;
+
+        while (served < CALLS) {
+            while (next < CALLS && callTimes[next] <= now) {
+                pendingCalls.get(callFloors[next]).add(callTimes[next]);
+                elevator.assignHallCall(floorService.getFloor(callFloors[next]));
+                next++;
+            }
+            if (!elevator.hasStoppingFloors()) {
+                now = callTimes[next];
+                continue;
+            }
+
+            int from = elevator.getFloorAt().getFloorNumber();
+            elevatorService.moveToNextFloor(elevator);
+            int to = elevator.getFloorAt().getFloorNumber();
+            floorsTravelled += Math.abs(to - from);
+            now += Math.abs(to - from) * SECONDS_PER_FLOOR + DWELL_SECONDS;
+
+            for (double callTime: pendingCalls.get(to)) {
+                waits[served++] = now - callTime;
+            }
+            pendingCalls.get(to).clear();
+        }
+
+        Arrays.sort(waits);
+        double total = 0;
+        for (double wait: waits) {
+            total += wait;
+        }
+        console.printf("%-20s %12.1f %12.1f %16d%n", name, total / CALLS, waits[(int) (CALLS * 0.99)], floorsTravelled);
+    }
+}
@@ -1,9 +1,17 @@
 import Model.Direction;
 import Model.Floor;
+import Persistence.ElevatorPersistence;
+import Persistence.FleetStateEncoder;
+import Persistence.FleetStateReader;
 import Service.ElevatorManagementService;
 import Service.ElevatorService;
+import Service.FloorLoader;
 import Service.FloorService;
+import Service.ParkingPlanner;
+import Service.TraceRecorder;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
@@ -11,6 +19,8 @@ public class Driver {
     private static final ElevatorManagementService elevatorManagementService = ElevatorManagementService.getInstance();
     private static final ElevatorService elevatorService = ElevatorService.getInstance();
     private static final FloorService floorService = FloorService.getInstance();
+    // One encoder for the run: the state file's when there is one, else made on the first status command
+    private static FleetStateEncoder fleetStateEncoder;
 
     public static void main(String[] args) {
         initializeSystem();
@@ -46,14 +56,72 @@ public class Driver {
     private static void initializeSystem() {
         System.out.println("===== INITIALIZING ELEVATOR SYSTEM =====");
 
-        // Initialize floors (0 to 10)
-        for (int i = 0; i <= 10; i++) {
-            floorService.addFloor(i);
+        // Initialize floors (0 to 10 unless configured); the demo cars below run from the lowest to the highest
+        String floorsFile = System.getProperty("elevator.floorsFile");
+        try {
+            int floors = floorsFile != null
+                    ? FloorLoader.load(floorService, Paths.get(floorsFile))
+                    : FloorLoader.load(floorService, System.getProperty("elevator.floors", "0..10"));
+            if (floors <= 0) {
+                System.out.println("Could not parse floor ranges, using floors 0 to 10");
+                FloorLoader.load(floorService, "0..10");
+            }
+        } catch (IOException e) {
+            System.out.println("Could not load floors: " + e.getMessage());
+            FloorLoader.load(floorService, "0..10");
+        }
+
+        // Pick up where the last run left off when a data directory is configured
+        String dataDir = System.getProperty("elevator.dataDir");
+        if (dataDir != null) {
+            ElevatorPersistence elevatorPersistence = new ElevatorPersistence(elevatorService, floorService,
+                    Paths.get(dataDir));
+            try {
+                int records = elevatorPersistence.recover();
+                System.out.println("Recovered " + elevatorService.getAllElevator().size() + " elevators and "
+                        + records + " journal records from " + dataDir);
+                elevatorPersistence.start(Long.getLong("elevator.checkpointPeriodMillis", 60000));
+            } catch (IOException e) {
+                System.out.println("Could not recover elevator state: " + e.getMessage());
+            }
+        }
+
+        // Publish the encoded fleet state for external monitors
+        String stateFile = System.getProperty("elevator.stateFile");
+        if (stateFile != null) {
+            try {
+                fleetStateEncoder = FleetStateEncoder.mapped(elevatorService, Paths.get(stateFile));
+                fleetStateEncoder.start(Long.getLong("elevator.tickPeriodMillis", 1000));
+            } catch (IOException e) {
+                System.out.println("Could not map fleet state file: " + e.getMessage());
+            }
+        }
+
+        // Learn the building's traffic and park idle cars where calls are expected next
+        Long parkingPeriodMillis = Long.getLong("elevator.parkingPeriodMillis");
+        if (parkingPeriodMillis != null) {
+            ParkingPlanner parkingPlanner = new ParkingPlanner(elevatorService, floorService,
+                    floorService.getLowestFloor(), floorService.getHighestFloor());
+            elevatorManagementService.setParkingPlanner(parkingPlanner);
+            parkingPlanner.start(parkingPeriodMillis);
+        }
+
+        // Record every call, button press, tick and car change so the run can be replayed (Simulation.TraceReplay)
+        String traceFile = System.getProperty("elevator.traceFile");
+        if (traceFile != null) {
+            try {
+                TraceRecorder traceRecorder = TraceRecorder.create(Paths.get(traceFile), floorService,
+                        elevatorManagementService.getTickEngine().getTickPeriodMillis());
+                elevatorManagementService.setTraceRecorder(traceRecorder);
+                Runtime.getRuntime().addShutdownHook(new Thread(traceRecorder::close));
+            } catch (IOException e) {
+                System.out.println("Could not create trace file: " + e.getMessage());
+            }
         }
 
-        // Get floor references
-        Floor groundFloor = floorService.getFloor(0);
-        Floor topFloor = floorService.getFloor(10);
+        // Get floor references; the configured floors need not include 0
+        Floor groundFloor = floorService.getFloor(floorService.getLowestFloor());
+        Floor topFloor = floorService.getFloor(floorService.getHighestFloor());
 
         // Add 4 elevators with different characteristics
         elevatorService.addElevator(1, 8, groundFloor, groundFloor, topFloor);  // Standard elevator
@@ -61,7 +129,7 @@ public class Driver {
         elevatorService.addElevator(3, 5, groundFloor, groundFloor, topFloor);  // Lower capacity
         elevatorService.addElevator(4, 10, groundFloor, groundFloor, topFloor); // Medium capacity
 
-        System.out.println("System initialized with 11 floors (0-10) and 4 elevators\n");
+        System.out.println("System initialized with " + floorService.getFloorCount() + " floors and 4 elevators\n");
     }
 
     private static void testBasicElevatorRequest() {
@@ -171,7 +239,7 @@ public class Driver {
                 .ifPresent(e -> {
                     e.setFloorAt(floorService.getFloor(2));
                     e.setDirection(Direction.UP);
-                    e.getStoppingFloors().clear();
+                    e.clearStoppingFloors();
                 });
 
         // Add multiple stops in both directions
@@ -229,15 +297,21 @@ public class Driver {
 
                     case "status":
                         System.out.println("=== Elevator Status ===");
-                        elevatorService.getAllElevator().forEach(e -> {
-                            System.out.println("Elevator #" + e.getElevatorNumber() +
-                                    " at floor " + e.getFloorAt().getFloorNumber() +
-                                    ", direction: " + e.getDirection() +
-                                    ", load: " + e.getCurrentLoad() + "/" + e.getMaxCapacity());
+                        if (fleetStateEncoder == null) {
+                            fleetStateEncoder = new FleetStateEncoder(elevatorService);
+                        }
+                        fleetStateEncoder.encode();
+                        FleetStateReader fleetState = new FleetStateReader(fleetStateEncoder.getBuffer());
+                        fleetState.refresh();
+                        for (int i = 0; i < fleetState.getElevatorCount(); i++) {
+                            System.out.println("Elevator #" + fleetState.getElevatorNumber(i) +
+                                    " at floor " + fleetState.getFloorAt(i) +
+                                    ", direction: " + fleetState.getDirection(i) +
+                                    ", load: " + fleetState.getCurrentLoad(i) + "/" + fleetState.getMaxCapacity(i));
                             System.out.print("   Stopping floors: ");
-                            e.getStoppingFloors().forEach(f -> System.out.print(f.getFloorNumber() + " "));
+                            fleetState.forEachStop(i, f -> System.out.print(f + " "));
                             System.out.println();
-                        });
+                        }
                         break;
 
                     default:
@@ -1,36 +1,60 @@
 package Model;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class Elevator {
-    private int currentLoad;
+    // Written under this car's monitor; volatile because movers and the index read them without it
+    private volatile int currentLoad;
     private String elevatorId;
-    private int elevatorNumber;
-    private int maxCapacity;
-    private Direction direction;
-    private Floor floorAt;
-    private final Queue<Floor> stoppingFloors;
-    private Floor minFloor;
-    private Floor maxFloor;
-    private Condition elevatorCondition;
+    private volatile int elevatorNumber;
+    private volatile int maxCapacity;
+    private volatile Direction direction;
+    private volatile Floor floorAt;
+    private final StopSet stoppingFloors;
+    private final Map<Integer, StopSet> destinationsByPickup;
+    private final AtomicInteger stateVersion;
+    private volatile Floor minFloor;
+    private volatile Floor maxFloor;
+    private volatile Condition elevatorCondition;
+    private final List<ElevatorListener> listeners;
+    private final Zone zone;
+    // Changes posted by other threads, applied in order by whoever moves the car
+    private final Queue<Consumer<Elevator>> mailbox;
+    private volatile ElevatorSnapshot snapshot;
 
     public Elevator(final int elevatorNumber, final int maxCapacity, final Floor floorAt,
                     final Floor minFloor, final Floor maxFloor) {
+        this(elevatorNumber, maxCapacity, floorAt, minFloor, maxFloor, null);
+    }
+
+    // A zoned car spans its zone's lowest to highest served floor but stops only at the floors the zone serves
+    public Elevator(final int elevatorNumber, final int maxCapacity, final Floor floorAt,
+                    final Floor minFloor, final Floor maxFloor, final Zone zone) {
         this.elevatorId = UUID.randomUUID().toString();
         this.elevatorNumber = elevatorNumber;
         this.maxCapacity = maxCapacity;
         this.direction = Direction.STOP;
         this.floorAt = floorAt;
-        this.stoppingFloors = new PriorityQueue<>(Comparator.comparingInt(Floor::getFloorNumber));
+        this.stoppingFloors = new StopSet(minFloor.getFloorNumber(), maxFloor.getFloorNumber());
+        this.destinationsByPickup = new HashMap<>();
+        this.stateVersion = new AtomicInteger();
         this.minFloor = minFloor;
         this.maxFloor = maxFloor;
         this.elevatorCondition = Condition.WORKING;
         this.currentLoad = 0;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.zone = zone;
+        this.mailbox = new ConcurrentLinkedQueue<>();
+        this.snapshot = snapshot(0, null);
     }
 
     public String getElevatorId() {
@@ -52,12 +76,76 @@ public class Elevator {
         return floorAt;
     }
 
-    public Queue<Floor> getStoppingFloors() {
+    // Mutated only under this car's monitor; read it there too when a consistent view matters
+    public StopSet getStoppingFloors() {
         return stoppingFloors;
     }
 
-    public Floor getNextFloor() {
-        return stoppingFloors.poll();
+    public synchronized boolean hasStoppingFloors() {
+        return !stoppingFloors.isEmpty();
+    }
+
+    public synchronized void moveTo(final Floor floor) {
+        int floorNumber = floor.getFloorNumber();
+        stoppingFloors.remove(floorNumber);
+        StopSet destinations = destinationsByPickup.remove(floorNumber);
+        if (floorNumber > floorAt.getFloorNumber()) {
+            this.direction = Direction.UP;
+        } else if (floorNumber < floorAt.getFloorNumber()) {
+            this.direction = Direction.DOWN;
+        }
+        this.floorAt = floor;
+        // Riders boarding here go where this floor's callers asked, so listeners see those stops on arrival
+        if (destinations != null) {
+            destinations.forEach(this::addStoppingFloor);
+        }
+        stateChanged(StateChange.ARRIVED, floorNumber, direction.ordinal());
+    }
+
+    // Travels to a floor without stopping there, as a car reversing at the end of its range does: nobody boards or
+    // alights, so listeners see the car change floor rather than arrive
+    public synchronized void passTo(final Floor floor) {
+        int floorNumber = floor.getFloorNumber();
+        if (floorNumber > floorAt.getFloorNumber() && direction != Direction.UP) {
+            setDirection(Direction.UP);
+        } else if (floorNumber < floorAt.getFloorNumber() && direction != Direction.DOWN) {
+            setDirection(Direction.DOWN);
+        }
+        setFloorAt(floor);
+    }
+
+    // Bumped after every route change so dispatch can validate what it read without a lock
+    public int getStateVersion() {
+        return stateVersion.get();
+    }
+
+    // The state as of the latest change; reading it never waits for the car's writer
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Lock-free; the command runs on the car's mover at its next applyCommands, in posting order, and listeners are
+    // told so an idle car's mover can be woken
+    public void post(final Consumer<Elevator> command) {
+        mailbox.offer(command);
+        for (ElevatorListener listener: listeners) {
+            listener.onCommandPosted(this);
+        }
+    }
+
+    public boolean hasCommands() {
+        return !mailbox.isEmpty();
+    }
+
+    // Called by the car's mover only
+    public synchronized int applyCommands() {
+        int applied = 0;
+        Consumer<Elevator> command;
+        while ((command = mailbox.poll()) != null) {
+            command.accept(this);
+            applied++;
+        }
+        return applied;
     }
 
     public Floor getMinFloor() {
@@ -68,56 +156,205 @@ public class Elevator {
         return maxFloor;
     }
 
+    // Null for a car that stops at every floor of its range
+    public Zone getZone() {
+        return zone;
+    }
+
+    public boolean serves(final int floorNumber) {
+        if (zone != null) {
+            return zone.serves(floorNumber);
+        }
+        return floorNumber >= minFloor.getFloorNumber() && floorNumber <= maxFloor.getFloorNumber();
+    }
+
     public String getCondition() {
         return this.elevatorCondition.value;
     }
 
+    public Condition getElevatorCondition() {
+        return elevatorCondition;
+    }
+
     public int getCurrentLoad() {
         return currentLoad;
     }
 
-    public void setElevatorNumber(final int elevatorNumber) {
+    // Listeners keyed by the car's number get the old one as the value, to drop what they hold under it
+    public synchronized void setElevatorNumber(final int elevatorNumber) {
+        int previous = this.elevatorNumber;
         this.elevatorNumber = elevatorNumber;
+        stateChanged(StateChange.NUMBER_CHANGED, floorAt.getFloorNumber(), previous);
     }
 
-    public void setMaxCapacity(final int maxCapacity) {
+    public synchronized void setMaxCapacity(final int maxCapacity) {
         this.maxCapacity = maxCapacity;
+        stateChanged(StateChange.CAPACITY_CHANGED, floorAt.getFloorNumber(), maxCapacity);
     }
 
-    public void setDirection(final Direction direction) {
+    public synchronized void setDirection(final Direction direction) {
         this.direction = direction;
+        stateChanged(StateChange.DIRECTION_CHANGED, floorAt.getFloorNumber(), direction.ordinal());
     }
 
-    public void setFloorAt(final Floor floorAt) {
+    public synchronized void setFloorAt(final Floor floorAt) {
         this.floorAt = floorAt;
+        stateChanged(StateChange.FLOOR_CHANGED, floorAt.getFloorNumber(), 0);
     }
 
-    public void setMinFloor(final Floor minFloor) {
+    public synchronized void setMinFloor(final Floor minFloor) {
         this.minFloor = minFloor;
+        stoppingFloors.resize(minFloor.getFloorNumber(), maxFloor.getFloorNumber());
+        stateChanged(StateChange.RANGE_CHANGED, minFloor.getFloorNumber(), maxFloor.getFloorNumber());
     }
 
-    public void setMaxFloor(final Floor maxFloor) {
+    public synchronized void setMaxFloor(final Floor maxFloor) {
         this.maxFloor = maxFloor;
+        stoppingFloors.resize(minFloor.getFloorNumber(), maxFloor.getFloorNumber());
+        stateChanged(StateChange.RANGE_CHANGED, minFloor.getFloorNumber(), maxFloor.getFloorNumber());
+    }
+
+    // A new listener is told about the car as it stands before it sees any change
+    public synchronized void addListener(final ElevatorListener listener) {
+        listeners.add(listener);
+        listener.onStateChanged(this, StateChange.ADDED, floorAt.getFloorNumber(), 0);
+    }
+
+    public void removeListener(final ElevatorListener listener) {
+        listeners.remove(listener);
     }
 
     public void addStoppingFloor(final Floor floor) {
-        if(!stoppingFloors.contains(floor)) {
-            this.stoppingFloors.add(floor);
+        addStoppingFloor(floor.getFloorNumber());
+    }
+
+    public synchronized void addStoppingFloor(final int floorNumber) {
+        if ((zone == null || zone.serves(floorNumber)) && stoppingFloors.add(floorNumber)) {
+            stateChanged(StateChange.STOP_ADDED, floorNumber, 0);
         }
+    }
 
+    // Destinations entered at the hall become stops once the car picks the rider up
+    public synchronized void addDestination(final int pickupFloor, final int destinationFloor) {
+        boolean added = destinationsByPickup.computeIfAbsent(pickupFloor,
+                        floorNumber -> new StopSet(minFloor.getFloorNumber(), maxFloor.getFloorNumber()))
+                .add(destinationFloor);
+        if (added) {
+            stateChanged(StateChange.DESTINATION_ADDED, pickupFloor, destinationFloor);
+        }
+    }
+
+    public synchronized Map<Integer, int[]> getDestinationsByPickup() {
+        Map<Integer, int[]> destinations = new HashMap<>();
+        destinationsByPickup.forEach((pickupFloor, stops) -> destinations.put(pickupFloor, stops.toArray()));
+        return destinations;
+    }
+
+    public synchronized boolean hasDestination(final int destinationFloor) {
+        if (stoppingFloors.contains(destinationFloor)) {
+            return true;
+        }
+        for (StopSet destinations: destinationsByPickup.values()) {
+            if (destinations.contains(destinationFloor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean assignHallCall(final HallCall hallCall, final int expectedVersion) {
+        if (stateVersion.get() != expectedVersion) {
+            return false;
+        }
+        assignHallCall(hallCall);
+        return true;
+    }
+
+    public synchronized void assignHallCall(final HallCall hallCall) {
+        assignHallCall(hallCall.getStartingFloor());
+        if (hallCall.hasDestination()) {
+            addDestination(hallCall.getStartingFloor(), hallCall.getDestinationFloor());
+        }
+    }
 
+    public void assignHallCall(final Floor floor) {
+        assignHallCall(floor.getFloorNumber());
     }
-    public void changeCondition(final Condition condition) {
+
+    private synchronized void assignHallCall(final int floorNumber) {
+        addStoppingFloor(floorNumber);
+
+        if (direction == Direction.STOP) {
+            if (floorNumber >= floorAt.getFloorNumber()) {
+                setDirection(Direction.UP);
+            } else {
+                setDirection(Direction.DOWN);
+            }
+        }
+    }
+
+    public synchronized void clearStoppingFloors() {
+        stoppingFloors.clear();
+        destinationsByPickup.clear();
+        stateChanged(StateChange.STOPS_CLEARED, floorAt.getFloorNumber(), 0);
+    }
+
+    // Hands back every call the car still owed, as hall calls another car can take over
+    public synchronized List<HallCall> removeFromService() {
+        changeCondition(Condition.NOT_WORKING);
+
+        List<HallCall> strandedCalls = new ArrayList<>();
+        int at = floorAt.getFloorNumber();
+        stoppingFloors.forEach(floorNumber -> {
+            StopSet destinations = destinationsByPickup.get(floorNumber);
+            if (destinations != null) {
+                destinations.forEach(destinationFloor ->
+                        strandedCalls.add(new HallCall(floorNumber, destinationFloor)));
+            } else {
+                strandedCalls.add(new HallCall(floorNumber >= at ? Direction.UP : Direction.DOWN, floorNumber));
+            }
+        });
+        clearStoppingFloors();
+        setDirection(Direction.STOP);
+        return strandedCalls;
+    }
+
+    public synchronized void changeCondition(final Condition condition) {
         this.elevatorCondition = condition;
+        stateChanged(StateChange.CONDITION_CHANGED, floorAt.getFloorNumber(), condition.ordinal());
     }
 
-    public void increaseCurrentLoad(final int person) {
+    public synchronized void increaseCurrentLoad(final int person) {
         this.currentLoad += person;
+        stateChanged(StateChange.LOAD_CHANGED, floorAt.getFloorNumber(), currentLoad);
     }
 
-    public void reduceCurrentLoad(final int person) {
+    public synchronized void reduceCurrentLoad(final int person) {
         this.currentLoad -= person;
+        stateChanged(StateChange.LOAD_CHANGED, floorAt.getFloorNumber(), currentLoad);
+    }
+
+    // Listeners run after the new snapshot is published, so they see the change in it
+    private void stateChanged(final StateChange change, final int floorNumber, final int value) {
+        snapshot = snapshot(stateVersion.incrementAndGet(), changesRoute(change) ? null : snapshot.peekEtaTable());
+        for (ElevatorListener listener: listeners) {
+            listener.onStateChanged(this, change, floorNumber, value);
+        }
     }
 
+    // Load, condition, number, capacity and destinations not yet picked up leave the sweep, and so the arrival
+    // estimates, as they were
+    private static boolean changesRoute(final StateChange change) {
+        return change != StateChange.LOAD_CHANGED && change != StateChange.CONDITION_CHANGED
+                && change != StateChange.DESTINATION_ADDED && change != StateChange.NUMBER_CHANGED
+                && change != StateChange.CAPACITY_CHANGED;
+    }
 
+    private ElevatorSnapshot snapshot(final int version, final EtaTable etaTable) {
+        StopSet destinations = new StopSet(minFloor.getFloorNumber(), maxFloor.getFloorNumber());
+        for (StopSet byPickup: destinationsByPickup.values()) {
+            byPickup.forEach(destinations::add);
+        }
+        return new ElevatorSnapshot(this, version, new StopSet(stoppingFloors), destinations, etaTable);
+    }
 }
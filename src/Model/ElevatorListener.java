@@ -0,0 +1,10 @@
+package Model;
+
+public interface ElevatorListener {
+    // Called under the car's monitor; floorNumber and value depend on the change
+    void onStateChanged(Elevator elevator, StateChange change, int floorNumber, int value);
+
+    // Called on the posting thread, not under the car's monitor, once a command is in the car's mailbox
+    default void onCommandPosted(final Elevator elevator) {
+    }
+}
@@ -0,0 +1,106 @@
+package Model;
+
+public class ElevatorPosition {
+    private final Elevator elevator;
+    private final ElevatorSnapshot snapshot;
+    private final int version;
+    private final Direction direction;
+    private final int referenceFloor;
+    private final int minFloor;
+    private final int maxFloor;
+    private final boolean working;
+    private final int currentLoad;
+    private final int maxCapacity;
+    private final Zone zone;
+
+    public ElevatorPosition(final Elevator elevator) {
+        this(elevator, elevator.getSnapshot());
+    }
+
+    public ElevatorPosition(final Elevator elevator, final ElevatorSnapshot snapshot) {
+        this.elevator = elevator;
+        this.snapshot = snapshot;
+        this.version = snapshot.getVersion();
+        this.direction = snapshot.getDirection();
+        this.minFloor = snapshot.getMinFloor();
+        this.maxFloor = snapshot.getMaxFloor();
+        this.working = snapshot.getCondition() == Condition.WORKING;
+        this.currentLoad = snapshot.getCurrentLoad();
+        this.maxCapacity = snapshot.getMaxCapacity();
+        this.zone = snapshot.getZone();
+
+        // A car going down is ranked by the lowest stop it will reach before it can turn around
+        StopSet stoppingFloors = snapshot.getStoppingFloors();
+        if (direction == Direction.DOWN && !stoppingFloors.isEmpty()) {
+            this.referenceFloor = stoppingFloors.lowest();
+        } else {
+            this.referenceFloor = snapshot.getFloorAt();
+        }
+    }
+
+    public Elevator getElevator() {
+        return elevator;
+    }
+
+    public ElevatorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getReferenceFloor() {
+        return referenceFloor;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public Zone getZone() {
+        return zone;
+    }
+
+    public boolean isWorking() {
+        return working;
+    }
+
+    public int getCurrentLoad() {
+        return currentLoad;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public double getLoadFactor() {
+        return maxCapacity > 0 ? (double) currentLoad / maxCapacity : 1;
+    }
+
+    public boolean canServe(final int floorNumber) {
+        if (zone != null) {
+            return working && zone.serves(floorNumber);
+        }
+        return working && floorNumber >= minFloor && floorNumber <= maxFloor;
+    }
+
+    public int getDistance(final Direction callDirection, final int startingFloor) {
+        int d = callDirection == Direction.UP ? 1 : -1;
+        if (direction == Direction.UP) {
+            return d*(startingFloor-referenceFloor);
+        } else if (direction == Direction.DOWN) {
+            return d*(referenceFloor-startingFloor);
+        } else {
+            return Math.abs(startingFloor-referenceFloor);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Model;
+
+// A car's state as of one version, published by the car after every change. Never mutated once published, so any
+// thread can read it without the car's monitor
+public final class ElevatorSnapshot {
+    private final int elevatorNumber;
+    private final int version;
+    private final int floorAt;
+    private final Direction direction;
+    private final Condition condition;
+    private final int currentLoad;
+    private final int maxCapacity;
+    private final int minFloor;
+    private final int maxFloor;
+    private final Zone zone;
+    private final StopSet stoppingFloors;
+    private final StopSet destinations;
+    // Built by the first reader that needs it. A racing reader may build its own, equal table, which is harmless
+    // as tables are immutable
+    private EtaTable etaTable;
+
+    // Called by the car under its own monitor, with the previous snapshot's table when the route has not changed
+    ElevatorSnapshot(final Elevator elevator, final int version, final StopSet stoppingFloors,
+                     final StopSet destinations, final EtaTable etaTable) {
+        this.elevatorNumber = elevator.getElevatorNumber();
+        this.version = version;
+        this.floorAt = elevator.getFloorAt().getFloorNumber();
+        this.direction = elevator.getDirection();
+        this.condition = elevator.getElevatorCondition();
+        this.currentLoad = elevator.getCurrentLoad();
+        this.maxCapacity = elevator.getMaxCapacity();
+        this.minFloor = elevator.getMinFloor().getFloorNumber();
+        this.maxFloor = elevator.getMaxFloor().getFloorNumber();
+        this.zone = elevator.getZone();
+        this.stoppingFloors = stoppingFloors;
+        this.destinations = destinations;
+        this.etaTable = etaTable;
+    }
+
+    public int getElevatorNumber() {
+        return elevatorNumber;
+    }
+
+    // The car's state version this snapshot shows; dispatch assigns against it
+    public int getVersion() {
+        return version;
+    }
+
+    public int getFloorAt() {
+        return floorAt;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public int getCurrentLoad() {
+        return currentLoad;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public Zone getZone() {
+        return zone;
+    }
+
+    // A private copy owned by this snapshot; callers must not modify it
+    public StopSet getStoppingFloors() {
+        return stoppingFloors;
+    }
+
+    // How far and through how many stops the car's current route takes it to any floor
+    public EtaTable getEtaTable() {
+        EtaTable table = etaTable;
+        if (table == null) {
+            table = new EtaTable(floorAt, direction, stoppingFloors);
+            etaTable = table;
+        }
+        return table;
+    }
+
+    // The table if a reader has built it, so the car can hand it on while the route stays the same
+    EtaTable peekEtaTable() {
+        return etaTable;
+    }
+
+    // True when the car stops at the floor or has a rider waiting somewhere to be taken there
+    public boolean hasDestination(final int floorNumber) {
+        return stoppingFloors.contains(floorNumber) || destinations.contains(floorNumber);
+    }
+}
@@ -0,0 +1,100 @@
+package Model;
+
+// Where one route takes the car: how many floors it travels and how many stops it makes before it passes a floor
+// heading the caller's way, following its LOOK sweep. Readers turn an entry into seconds with their own timing.
+// Stops are counted from running totals per 64-floor word of the stop bitmap, so building a table costs one pass over
+// the words, about what the snapshot already paid to copy them, and every lookup is constant time
+public final class EtaTable {
+    private final int floorAt;
+    private final Direction direction;
+    private final StopSet stops;
+    private final int lowest;
+    private final int highest;
+    private final int size;
+    // stopsBelowWord[i] is the number of stops in the words before word i
+    private final int[] stopsBelowWord;
+
+    // The stop set must not change afterwards; snapshots hold their own copy
+    EtaTable(final int floorAt, final Direction direction, final StopSet stops) {
+        this.floorAt = floorAt;
+        this.direction = direction;
+        this.stops = stops;
+        this.lowest = stops.lowest();
+        this.highest = stops.highest();
+        this.size = stops.size();
+        this.stopsBelowWord = new int[stops.wordCount() + 1];
+        for (int i = 0; i < stops.wordCount(); i++) {
+            stopsBelowWord[i + 1] = stopsBelowWord[i] + Long.bitCount(stops.word(i));
+        }
+    }
+
+    public int getDistance(final int floor, final Direction callDirection) {
+        int at = floorAt;
+        if (size == 0 || (direction != Direction.UP && direction != Direction.DOWN)) {
+            return Math.abs(floor - at);
+        }
+
+        if (direction == Direction.UP) {
+            int top = Math.max(highest, at);
+            if (callDirection == Direction.UP && floor >= at) {
+                return floor - at;
+            } else if (callDirection == Direction.DOWN) {
+                int peak = Math.max(top, floor);
+                return (peak - at) + (peak - floor);
+            }
+            int bottom = Math.min(lowest, floor);
+            return (top - at) + (top - bottom) + (floor - bottom);
+        }
+
+        int bottom = Math.min(lowest, at);
+        if (callDirection == Direction.DOWN && floor <= at) {
+            return at - floor;
+        } else if (callDirection == Direction.UP) {
+            int trough = Math.min(bottom, floor);
+            return (at - trough) + (floor - trough);
+        }
+        int top = Math.max(highest, floor);
+        return (at - bottom) + (top - bottom) + (top - floor);
+    }
+
+    public int getStopsOnTheWay(final int floor, final Direction callDirection) {
+        int at = floorAt;
+        if (size == 0 || (direction != Direction.UP && direction != Direction.DOWN)) {
+            return 0;
+        }
+
+        if (direction == Direction.UP) {
+            if (callDirection == Direction.UP && floor >= at) {
+                return countBetween(at, floor - 1);
+            } else if (callDirection == Direction.DOWN) {
+                return countBetween(Math.min(at, floor + 1), Math.max(Math.max(highest, at), floor));
+            }
+            return size;
+        }
+
+        if (callDirection == Direction.DOWN && floor <= at) {
+            return countBetween(floor + 1, at);
+        } else if (callDirection == Direction.UP) {
+            return countBetween(Math.min(Math.min(lowest, at), floor), Math.max(at, floor - 1));
+        }
+        return size;
+    }
+
+    // Stops between the two floors, both inclusive and in either order, as StopSet.countBetween counts them
+    private int countBetween(final int fromFloor, final int toFloor) {
+        int from = Math.max(Math.min(fromFloor, toFloor) - stops.offset(), 0);
+        int to = Math.min(Math.max(fromFloor, toFloor) - stops.offset(), (stops.wordCount() << 6) - 1);
+        if (from > to) {
+            return 0;
+        }
+        return stopsAtOrBelow(to) - stopsAtOrBelow(from - 1);
+    }
+
+    private int stopsAtOrBelow(final int bit) {
+        if (bit < 0) {
+            return 0;
+        }
+        int wordIndex = bit >> 6;
+        return stopsBelowWord[wordIndex] + Long.bitCount(stops.word(wordIndex) & (-1L >>> (63 - (bit & 63))));
+    }
+}
@@ -0,0 +1,54 @@
+package Model;
+
+public enum EventType {
+    ELEVATOR_ADDED(LogLevel.INFO, "Elevator with number {elevator} is added"),
+    DUPLICATE_ELEVATOR(LogLevel.WARN, "Elevator with same number is already existed: {elevator}"),
+    ELEVATOR_NOT_PRESENT(LogLevel.WARN, "Elevator with the number {elevator} is not present"),
+    INVALID_ELEVATOR(LogLevel.WARN, "Invalid elevator Number: {elevator}"),
+    DUPLICATE_FLOOR(LogLevel.WARN, "Floor with floor number is already existed: {floor}"),
+    INVALID_FLOOR(LogLevel.WARN, "Invalid floor number: {floor}"),
+    NO_ELEVATOR_AVAILABLE(LogLevel.WARN, "No Elevator is available for floor {floor}"),
+    HALL_CALL_REJECTED(LogLevel.WARN, "Hall call queue is full, rejected call from floor {floor}"),
+    DISPATCH_FAILED(LogLevel.ERROR, "Dispatch failed for the call from floor {floor}"),
+    ASSIGNED(LogLevel.INFO, "Requested elevator is {elevator} for floor {floor}"),
+    MOVED(LogLevel.INFO, "Elevator {elevator} moved to: {floor}"),
+    STOPPED(LogLevel.INFO, "Elevator {elevator} stopped at floor {floor}"),
+    STOPPING_AT(LogLevel.INFO, "Elevator {elevator} stopping at floor: {floor}"),
+    CAPACITY_BLOCKED(LogLevel.WARN, "Max Capacity: elevator {elevator} cannot move"),
+    OUT_OF_SERVICE(LogLevel.WARN, "Elevator {elevator} is out of service at floor {floor}"),
+    PARKING(LogLevel.INFO, "Elevator {elevator} parking at floor {floor}"),
+    FLOOR_NOT_SERVED(LogLevel.WARN, "Elevator {elevator} does not stop at floor {floor}"),
+    TRANSFER(LogLevel.INFO, "No single bank serves the ride, first leg ends at transfer floor {floor}"),
+    DUPLICATE_BUILDING(LogLevel.WARN, "Building with same name is already existed"),
+    BUILDING_NOT_PRESENT(LogLevel.WARN, "Building is not present"),
+    CHANGE_NOT_JOURNALED(LogLevel.ERROR, "No new journal segment, elevator {elevator} change at floor {floor} is lost"),
+    CYCLE_FAILED(LogLevel.ERROR, "Cycle failed, retrying on the next one");
+
+    private final LogLevel level;
+    private final String template;
+
+    EventType(final LogLevel level, final String template) {
+        this.level = level;
+        this.template = template;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public void format(final StringBuilder builder, final int elevatorNumber, final int floorNumber) {
+        int start = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf('{', start)) >= 0) {
+            builder.append(template, start, placeholder);
+            if (template.startsWith("{elevator}", placeholder)) {
+                builder.append(elevatorNumber);
+                start = placeholder + "{elevator}".length();
+            } else {
+                builder.append(floorNumber);
+                start = placeholder + "{floor}".length();
+            }
+        }
+        builder.append(template, start, template.length());
+    }
+}
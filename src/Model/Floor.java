@@ -1,17 +1,46 @@
 package Model;
 
-public class Floor {
-    private int floorNumber;
+// Immutable, and shared: Floor.of returns the same instance for a floor number wherever it is asked for
+public final class Floor {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final Floor[] CACHE = new Floor[CACHE_HIGH - CACHE_LOW + 1];
 
-    public Floor(final int floorNumber) {
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Floor(CACHE_LOW + i);
+        }
+    }
+
+    private final int floorNumber;
+
+    private Floor(final int floorNumber) {
         this.floorNumber = floorNumber;
     }
 
+    public static Floor of(final int floorNumber) {
+        if (floorNumber >= CACHE_LOW && floorNumber <= CACHE_HIGH) {
+            return CACHE[floorNumber - CACHE_LOW];
+        }
+        return new Floor(floorNumber);
+    }
+
     public int getFloorNumber() {
         return floorNumber;
     }
 
-    public void changeFloorNumber(final int floorNumber) {
-        this.floorNumber = floorNumber;
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Floor && ((Floor) other).floorNumber == floorNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return floorNumber;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(floorNumber);
     }
 }
@@ -0,0 +1,35 @@
+package Model;
+
+public class HallCall {
+    private final Direction direction;
+    private final int startingFloor;
+    private final int destinationFloor;
+
+    public HallCall(final Direction direction, final int startingFloor) {
+        this.direction = direction;
+        this.startingFloor = startingFloor;
+        this.destinationFloor = StopSet.NONE;
+    }
+
+    public HallCall(final int startingFloor, final int destinationFloor) {
+        this.direction = destinationFloor >= startingFloor ? Direction.UP : Direction.DOWN;
+        this.startingFloor = startingFloor;
+        this.destinationFloor = destinationFloor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getStartingFloor() {
+        return startingFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public boolean hasDestination() {
+        return destinationFloor != StopSet.NONE;
+    }
+}
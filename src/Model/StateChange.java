@@ -0,0 +1,17 @@
+package Model;
+
+public enum StateChange {
+    ADDED,
+    STOP_ADDED,
+    STOPS_CLEARED,
+    DESTINATION_ADDED,
+    ARRIVED,
+    FLOOR_CHANGED,
+    DIRECTION_CHANGED,
+    RANGE_CHANGED,
+    CONDITION_CHANGED,
+    LOAD_CHANGED,
+    // Added last so journals already written keep their ordinals
+    NUMBER_CHANGED,
+    CAPACITY_CHANGED
+}
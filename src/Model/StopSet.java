@@ -0,0 +1,204 @@
+package Model;
+
+import java.util.function.IntConsumer;
+
+public class StopSet {
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private int offset;
+    private long[] words;
+    private int size;
+    private int lowest;
+    private int highest;
+
+    public StopSet(final int minFloor, final int maxFloor) {
+        this.offset = minFloor;
+        this.words = new long[((maxFloor - minFloor) >> 6) + 1];
+        this.lowest = NONE;
+        this.highest = NONE;
+    }
+
+    public StopSet(final StopSet other) {
+        this.offset = other.offset;
+        this.words = other.words.clone();
+        this.size = other.size;
+        this.lowest = other.lowest;
+        this.highest = other.highest;
+    }
+
+    public boolean contains(final int floorNumber) {
+        int bit = floorNumber - offset;
+        if (bit < 0 || bit >= words.length << 6) {
+            return false;
+        }
+        return (words[bit >> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean add(final int floorNumber) {
+        int bit = floorNumber - offset;
+        if (bit < 0 || bit >= words.length << 6 || contains(floorNumber)) {
+            return false;
+        }
+
+        words[bit >> 6] |= 1L << bit;
+        size++;
+        if (lowest == NONE || floorNumber < lowest) {
+            lowest = floorNumber;
+        }
+        if (highest == NONE || floorNumber > highest) {
+            highest = floorNumber;
+        }
+        return true;
+    }
+
+    public boolean remove(final int floorNumber) {
+        if (!contains(floorNumber)) {
+            return false;
+        }
+
+        int bit = floorNumber - offset;
+        words[bit >> 6] &= ~(1L << bit);
+        size--;
+        if (size == 0) {
+            lowest = NONE;
+            highest = NONE;
+        } else if (floorNumber == lowest) {
+            lowest = nextAtOrAbove(floorNumber + 1);
+        } else if (floorNumber == highest) {
+            highest = nextAtOrBelow(floorNumber - 1);
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Lowest floor the bitmap can hold; bit i of the words is floor offset() + i
+    public int offset() {
+        return offset;
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    public long word(final int wordIndex) {
+        return words[wordIndex];
+    }
+
+    public int lowest() {
+        return lowest;
+    }
+
+    public int highest() {
+        return highest;
+    }
+
+    // Nearest stop at or above the floor, or NONE when there is none
+    public int nextAtOrAbove(final int floorNumber) {
+        if (size == 0 || floorNumber > highest) {
+            return NONE;
+        }
+        if (floorNumber <= lowest) {
+            return lowest;
+        }
+
+        int bit = floorNumber - offset;
+        int wordIndex = bit >> 6;
+        long word = words[wordIndex] & (-1L << bit);
+        while (word == 0) {
+            word = words[++wordIndex];
+        }
+        return offset + (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    // Nearest stop at or below the floor, or NONE when there is none
+    public int nextAtOrBelow(final int floorNumber) {
+        if (size == 0 || floorNumber < lowest) {
+            return NONE;
+        }
+        if (floorNumber >= highest) {
+            return highest;
+        }
+
+        int bit = floorNumber - offset;
+        int wordIndex = bit >> 6;
+        long word = words[wordIndex] & (-1L >>> (63 - (bit & 63)));
+        while (word == 0) {
+            word = words[--wordIndex];
+        }
+        return offset + (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    // Number of stops between the two floors, both inclusive
+    public int countBetween(final int fromFloor, final int toFloor) {
+        int from = Math.max(Math.min(fromFloor, toFloor) - offset, 0);
+        int to = Math.min(Math.max(fromFloor, toFloor) - offset, (words.length << 6) - 1);
+        if (size == 0 || from > to) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int wordIndex = from >> 6; wordIndex <= to >> 6; wordIndex++) {
+            long word = words[wordIndex];
+            if (wordIndex == from >> 6) {
+                word &= -1L << from;
+            }
+            if (wordIndex == to >> 6) {
+                word &= -1L >>> (63 - (to & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+        size = 0;
+        lowest = NONE;
+        highest = NONE;
+    }
+
+    // Re-bases the set on a new floor range, dropping stops that fall outside it
+    public void resize(final int minFloor, final int maxFloor) {
+        int[] stops = toArray();
+        this.offset = minFloor;
+        this.words = new long[((maxFloor - minFloor) >> 6) + 1];
+        clear();
+        for (int stop: stops) {
+            if (stop >= minFloor && stop <= maxFloor) {
+                add(stop);
+            }
+        }
+    }
+
+    public void forEach(final IntConsumer action) {
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            long word = words[wordIndex];
+            while (word != 0) {
+                action.accept(offset + (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] stops = new int[size];
+        int index = 0;
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            long word = words[wordIndex];
+            while (word != 0) {
+                stops[index++] = offset + (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return stops;
+    }
+}
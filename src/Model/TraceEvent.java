@@ -0,0 +1,14 @@
+package Model;
+
+public enum TraceEvent {
+    ELEVATOR_ADDED,
+    TICK,
+    HALL_CALL,
+    STOP_REQUESTED,
+    ELEVATOR_STOPPED,
+    CONDITION_CHANGED,
+    LOAD_CHANGED,
+    // Written just before a zoned car's ELEVATOR_ADDED: the zone, then one record per lobby
+    ELEVATOR_ZONE,
+    ZONE_LOBBY
+}
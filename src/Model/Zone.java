@@ -0,0 +1,73 @@
+package Model;
+
+import java.util.Arrays;
+
+// A bank's share of the building: every floor from lowestFloor to highestFloor, plus the lobbies its cars also stop
+// at. Cars of the zone run express between a lobby and the zone's own floors
+public class Zone {
+    private final String name;
+    private final int lowestFloor;
+    private final int highestFloor;
+    private final int[] lobbies;
+    private final StopSet servedFloors;
+
+    public Zone(final String name, final int lowestFloor, final int highestFloor, final int... lobbies) {
+        this.name = name;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.lobbies = lobbies.clone();
+        Arrays.sort(this.lobbies);
+
+        int minFloor = lowestFloor;
+        int maxFloor = highestFloor;
+        for (int lobby: this.lobbies) {
+            minFloor = Math.min(minFloor, lobby);
+            maxFloor = Math.max(maxFloor, lobby);
+        }
+        this.servedFloors = new StopSet(minFloor, maxFloor);
+        for (int floor = lowestFloor; floor <= highestFloor; floor++) {
+            servedFloors.add(floor);
+        }
+        for (int lobby: this.lobbies) {
+            servedFloors.add(lobby);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLowestFloor() {
+        return lowestFloor;
+    }
+
+    public int getHighestFloor() {
+        return highestFloor;
+    }
+
+    public int[] getLobbies() {
+        return lobbies.clone();
+    }
+
+    public int getMinFloor() {
+        return servedFloors.lowest();
+    }
+
+    public int getMaxFloor() {
+        return servedFloors.highest();
+    }
+
+    // Never mutated after construction, so safe to read from any thread
+    public boolean serves(final int floorNumber) {
+        return servedFloors.contains(floorNumber);
+    }
+
+    public int[] getServedFloors() {
+        return servedFloors.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
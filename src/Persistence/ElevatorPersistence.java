@@ -0,0 +1,213 @@
+package Persistence;
+
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.EventType;
+import Model.StateChange;
+import Model.Zone;
+import Service.ElevatorService;
+import Service.FloorService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ElevatorPersistence implements ElevatorListener {
+    private static final String SNAPSHOT_FILE = "fleet.snapshot";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final ElevatorService elevatorService;
+    private final FloorService floorService;
+    private final Path directory;
+    private final int segmentBytes;
+    private final ScheduledExecutorService scheduler;
+    private final Object checkpointLock;
+    private volatile StateJournal journal;
+    private long generation;
+    private ScheduledFuture<?> checkpointTask;
+
+    public ElevatorPersistence(final ElevatorService elevatorService, final FloorService floorService,
+                               final Path directory, final int segmentBytes) {
+        this.elevatorService = elevatorService;
+        this.floorService = floorService;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes - segmentBytes % StateJournal.RECORD_SIZE;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "elevator-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checkpointLock = new Object();
+    }
+
+    public ElevatorPersistence(final ElevatorService elevatorService, final FloorService floorService,
+                               final Path directory) {
+        this(elevatorService, floorService, directory, Integer.getInteger("elevator.journalSegmentBytes", 1 << 24));
+    }
+
+    // Loads the last snapshot, replays every journal segment written since and installs the cars it describes;
+    // floors must already exist. Returns the number of journal records replayed
+    public int recover() throws IOException {
+        Files.createDirectories(directory);
+        Map<Integer, RecoveredElevator> recovered = new HashMap<>();
+        long snapshotGeneration = FleetSnapshot.read(directory.resolve(SNAPSHOT_FILE), recovered);
+
+        int records = 0;
+        generation = snapshotGeneration;
+        try {
+            for (long segment: listSegments()) {
+                if (segment >= snapshotGeneration) {
+                    records += StateJournal.replay(segmentPath(segment),
+                            (change, elevatorNumber, floorNumber, value, minFloor, maxFloor, attachment) -> {
+                                if (change == StateChange.ADDED && !recovered.containsKey(elevatorNumber)) {
+                                    RecoveredElevator elevator = new RecoveredElevator(elevatorNumber, value,
+                                            floorNumber, minFloor, maxFloor);
+                                    if (attachment != null) {
+                                        elevator.setZone(FleetSnapshot.fromBytes(attachment));
+                                    }
+                                    recovered.put(elevatorNumber, elevator);
+                                } else if (change == StateChange.NUMBER_CHANGED && recovered.containsKey(value)) {
+                                    // Written under the new number, with the old one as the value
+                                    RecoveredElevator renumbered = recovered.remove(value);
+                                    renumbered.setElevatorNumber(elevatorNumber);
+                                    recovered.put(elevatorNumber, renumbered);
+                                } else if (recovered.containsKey(elevatorNumber)) {
+                                    recovered.get(elevatorNumber).apply(change, floorNumber, value);
+                                }
+                            });
+                }
+                generation = Math.max(generation, segment);
+            }
+        } catch (UncheckedIOException e) {
+            // A zone attachment that does not read back
+            throw e.getCause();
+        }
+
+        // Cars of one bank share one zone again, since the index and the router tell zones apart by identity
+        Map<String, Zone> zones = new HashMap<>();
+        for (Zone zone: elevatorService.getZoneRouter().getZones()) {
+            zones.put(zone.getName(), zone);
+        }
+        for (RecoveredElevator elevator: recovered.values()) {
+            elevator.install(elevatorService, floorService, zones);
+        }
+        return records;
+    }
+
+    // Journals every change from now on and checkpoints on the given period
+    public void start(final long checkpointPeriodMillis) throws IOException {
+        synchronized (this) {
+            journal = StateJournal.create(segmentPath(++generation), segmentBytes);
+        }
+        elevatorService.addElevatorListener(this);
+        checkpoint();
+        checkpointTask = scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointPeriodMillis,
+                checkpointPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        elevatorService.removeElevatorListener(this);
+        if (checkpointTask != null) {
+            checkpointTask.cancel(false);
+            checkpointTask = null;
+        }
+        if (journal != null) {
+            journal.force();
+        }
+    }
+
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        StateJournal current = journal;
+        if (change == StateChange.ADDED) {
+            // Enough to recreate the car; whatever it already carries is in the next snapshot
+            byte[] zone = elevator.getZone() == null ? null : FleetSnapshot.toBytes(elevator.getZone());
+            while (current != null && !current.append(change, elevator.getElevatorNumber(), floorNumber,
+                    elevator.getMaxCapacity(), elevator.getMinFloor().getFloorNumber(),
+                    elevator.getMaxFloor().getFloorNumber(), zone)) {
+                current = rotate(current);
+            }
+        } else {
+            while (current != null && !current.append(change, elevator.getElevatorNumber(), floorNumber, value,
+                    0, 0)) {
+                current = rotate(current);
+            }
+        }
+        // The car keeps moving without this record; the next checkpoint that succeeds captures its state
+        if (current == null) {
+            elevatorService.getEventJournal().record(EventType.CHANGE_NOT_JOURNALED, elevator.getElevatorNumber(),
+                    floorNumber);
+        }
+    }
+
+    // A new segment starts the next generation; the snapshot that follows makes the older ones redundant
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long snapshotGeneration;
+            synchronized (this) {
+                journal = StateJournal.create(segmentPath(generation + 1), segmentBytes);
+                snapshotGeneration = ++generation;
+            }
+
+            // Records that reach the new segment before their car is copied are replayed over it harmlessly
+            FleetSnapshot.write(directory.resolve(SNAPSHOT_FILE), snapshotGeneration, elevatorService.getElevators());
+            for (long segment: listSegments()) {
+                if (segment < snapshotGeneration) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            }
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.out.println("Could not checkpoint elevator state: " + e.getMessage());
+        }
+    }
+
+    // Called with the car's monitor held, so it only swaps the segment and leaves the snapshot to the scheduler.
+    // Returns null when no new segment could be opened; the full one stays current, so the next change tries again
+    private synchronized StateJournal rotate(final StateJournal full) {
+        if (journal == full) {
+            try {
+                journal = StateJournal.create(segmentPath(generation + 1), segmentBytes);
+                generation++;
+            } catch (IOException e) {
+                return null;
+            }
+            scheduler.execute(this::checkpointQuietly);
+        }
+        return journal;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path path: paths) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(JOURNAL_PREFIX.length(),
+                        name.length() - JOURNAL_SUFFIX.length())));
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(final long segment) {
+        return directory.resolve(JOURNAL_PREFIX + segment + JOURNAL_SUFFIX);
+    }
+}
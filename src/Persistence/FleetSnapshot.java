@@ -0,0 +1,171 @@
+package Persistence;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.Zone;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+
+public class FleetSnapshot {
+    private static final int MAGIC = 0x454C5653;
+    // Version 2 adds each car's zone
+    private static final int FORMAT_VERSION = 2;
+
+    private FleetSnapshot() {
+    }
+
+    // Each car is copied under its own monitor; the file only replaces the previous snapshot once it is on disk
+    public static void write(final Path path, final long generation, final Collection<Elevator> elevators)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(generation);
+            for (Elevator elevator: elevators) {
+                synchronized (elevator) {
+                    writeElevator(out, elevator);
+                }
+            }
+            // Cars added while writing are left to the journal
+            out.writeInt(-1);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeElevator(final DataOutputStream out, final Elevator elevator) throws IOException {
+        out.writeInt(elevator.getElevatorNumber());
+        out.writeInt(elevator.getMaxCapacity());
+        out.writeInt(elevator.getFloorAt().getFloorNumber());
+        out.writeInt(elevator.getMinFloor().getFloorNumber());
+        out.writeInt(elevator.getMaxFloor().getFloorNumber());
+        out.writeByte(elevator.getDirection().ordinal());
+        out.writeByte(elevator.getElevatorCondition().ordinal());
+        out.writeInt(elevator.getCurrentLoad());
+        out.writeBoolean(elevator.getZone() != null);
+        if (elevator.getZone() != null) {
+            writeZone(out, elevator.getZone());
+        }
+
+        int[] stops = elevator.getStoppingFloors().toArray();
+        out.writeInt(stops.length);
+        for (int stop: stops) {
+            out.writeInt(stop);
+        }
+
+        Map<Integer, int[]> destinationsByPickup = elevator.getDestinationsByPickup();
+        out.writeInt(destinationsByPickup.size());
+        for (Map.Entry<Integer, int[]> entry: destinationsByPickup.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            for (int destination: entry.getValue()) {
+                out.writeInt(destination);
+            }
+        }
+    }
+
+    // Returns the journal generation the snapshot covers, or 0 when there is no snapshot yet
+    static long read(final Path path, final Map<Integer, RecoveredElevator> elevators) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version;
+            if (in.readInt() != MAGIC || (version = in.readInt()) < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unrecognised snapshot " + path);
+            }
+            long generation = in.readLong();
+            for (int elevatorNumber = in.readInt(); elevatorNumber != -1; elevatorNumber = in.readInt()) {
+                elevators.put(elevatorNumber, readElevator(in, elevatorNumber, version));
+            }
+            return generation;
+        }
+    }
+
+    private static RecoveredElevator readElevator(final DataInputStream in, final int elevatorNumber,
+                                                  final int version) throws IOException {
+        RecoveredElevator elevator = new RecoveredElevator(elevatorNumber, in.readInt(), in.readInt(), in.readInt(),
+                in.readInt());
+        elevator.setDirection(Direction.values()[in.readByte()]);
+        elevator.setCondition(Condition.values()[in.readByte()]);
+        elevator.setCurrentLoad(in.readInt());
+        if (version >= 2 && in.readBoolean()) {
+            elevator.setZone(readZone(in));
+        }
+        for (int stops = in.readInt(); stops > 0; stops--) {
+            elevator.addStoppingFloor(in.readInt());
+        }
+        for (int pickups = in.readInt(); pickups > 0; pickups--) {
+            int pickupFloor = in.readInt();
+            for (int destinations = in.readInt(); destinations > 0; destinations--) {
+                elevator.addDestination(pickupFloor, in.readInt());
+            }
+        }
+        return elevator;
+    }
+
+    // The zone as built: its name, its own floors and its lobbies, from which the floors it serves follow
+    static void writeZone(final DataOutput out, final Zone zone) throws IOException {
+        out.writeUTF(zone.getName());
+        out.writeInt(zone.getLowestFloor());
+        out.writeInt(zone.getHighestFloor());
+        int[] lobbies = zone.getLobbies();
+        out.writeInt(lobbies.length);
+        for (int lobby: lobbies) {
+            out.writeInt(lobby);
+        }
+    }
+
+    static Zone readZone(final DataInput in) throws IOException {
+        String name = in.readUTF();
+        int lowestFloor = in.readInt();
+        int highestFloor = in.readInt();
+        int[] lobbies = new int[in.readInt()];
+        for (int i = 0; i < lobbies.length; i++) {
+            lobbies[i] = in.readInt();
+        }
+        return new Zone(name, lowestFloor, highestFloor, lobbies);
+    }
+
+    // In memory, so only a truncated attachment can fail
+    static byte[] toBytes(final Zone zone) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeZone(new DataOutputStream(bytes), zone);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Zone fromBytes(final byte[] bytes) {
+        try {
+            return readZone(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
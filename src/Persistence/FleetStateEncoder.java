@@ -0,0 +1,194 @@
+package Persistence;
+
+import Model.Elevator;
+import Model.ElevatorSnapshot;
+import Model.StopSet;
+import Service.ElevatorService;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Fixed little-endian layout: a header followed by one struct per car, each ending in its stop bitmap.
+// A reader in any process copies the buffer between two equal, even reads of the sequence (a seqlock).
+public class FleetStateEncoder {
+    static final int MAGIC = 0x454C5346;
+    static final int FORMAT_VERSION = 1;
+    static final int SEQUENCE = 8;
+    static final int ELEVATOR_COUNT = 16;
+    static final int STOP_WORDS = 20;
+    static final int ELEVATOR_SIZE = 24;
+    static final int HEADER_SIZE = 32;
+
+    // Offsets inside one car's struct
+    static final int ELEVATOR_NUMBER = 0;
+    static final int FLOOR_AT = 4;
+    static final int MIN_FLOOR = 8;
+    static final int MAX_FLOOR = 12;
+    static final int CURRENT_LOAD = 16;
+    static final int MAX_CAPACITY = 20;
+    static final int DIRECTION = 24;
+    static final int CONDITION = 25;
+    static final int STOP_COUNT = 28;
+    static final int STOP_BITMAP = 32;
+
+    static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final ElevatorService elevatorService;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private ByteBuffer buffer;
+    // Reused by every pass; grows when the fleet outgrows it
+    private ElevatorSnapshot[] snapshots;
+    private int snapshotCount;
+    private ScheduledFuture<?> encodeTask;
+
+    private FleetStateEncoder(final ElevatorService elevatorService, final Path file, final int capacity)
+            throws IOException {
+        this.elevatorService = elevatorService;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fleet-state-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.buffer = allocate(capacity);
+        this.snapshots = new ElevatorSnapshot[16];
+    }
+
+    public FleetStateEncoder(final ElevatorService elevatorService) throws IOException {
+        this(elevatorService, null, 1 << 16);
+    }
+
+    // Shares the encoding with other processes through a memory-mapped file
+    public static FleetStateEncoder mapped(final ElevatorService elevatorService, final Path file)
+            throws IOException {
+        return new FleetStateEncoder(elevatorService, file, 1 << 16);
+    }
+
+    private ByteBuffer allocate(final int capacity) throws IOException {
+        ByteBuffer allocated;
+        if (file == null) {
+            allocated = ByteBuffer.allocateDirect(capacity);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                allocated = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+        allocated.order(ByteOrder.LITTLE_ENDIAN);
+        allocated.putInt(0, MAGIC);
+        allocated.putInt(4, FORMAT_VERSION);
+        return allocated;
+    }
+
+    public synchronized void start(final long periodMillis) {
+        if (encodeTask != null) {
+            return;
+        }
+        encodeTask = scheduler.scheduleAtFixedRate(this::encodeQuietly, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (encodeTask != null) {
+            encodeTask.cancel(false);
+            encodeTask = null;
+        }
+    }
+
+    // Returns the sequence readers will see for this encoding
+    public synchronized long encode() throws IOException {
+        // Each car's published snapshot is consistent on its own, so encoding never waits on a moving car
+        int count = 0;
+        int stopWords = 1;
+        for (Elevator elevator: elevatorService.getElevators()) {
+            if (count == snapshots.length) {
+                snapshots = Arrays.copyOf(snapshots, count * 2);
+            }
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            snapshots[count++] = snapshot;
+            stopWords = Math.max(stopWords, snapshot.getStoppingFloors().wordCount());
+        }
+        // Drops cars removed since the last pass, so their snapshots are not kept alive
+        if (count < snapshotCount) {
+            Arrays.fill(snapshots, count, snapshotCount, null);
+        }
+        snapshotCount = count;
+        int elevatorSize = STOP_BITMAP + 8 * stopWords;
+        int required = HEADER_SIZE + elevatorSize * count;
+        long sequence = (long) LONG_VIEW.getVolatile(buffer, SEQUENCE);
+        if (required > buffer.capacity()) {
+            // Readers of the old buffer see the magic cleared and come back for the new one
+            ByteBuffer previous = buffer;
+            buffer = allocate(Integer.highestOneBit(required) << 1);
+            LONG_VIEW.setVolatile(buffer, SEQUENCE, sequence);
+            if (file == null) {
+                previous.putInt(0, 0);
+            }
+        }
+        LONG_VIEW.setVolatile(buffer, SEQUENCE, sequence + 1);
+        // A volatile store alone lets the plain stores below move ahead of it, so a reader could see new data
+        // under the old even sequence
+        VarHandle.storeStoreFence();
+
+        for (int i = 0; i < count; i++) {
+            encodeElevator(snapshots[i], HEADER_SIZE + elevatorSize * i, stopWords);
+        }
+        buffer.putInt(ELEVATOR_COUNT, count);
+        buffer.putInt(STOP_WORDS, stopWords);
+        buffer.putInt(ELEVATOR_SIZE, elevatorSize);
+
+        LONG_VIEW.setRelease(buffer, SEQUENCE, sequence + 2);
+        return sequence + 2;
+    }
+
+    private void encodeElevator(final ElevatorSnapshot car, final int offset, final int stopWords) {
+        StopSet stoppingFloors = car.getStoppingFloors();
+        buffer.putInt(offset + ELEVATOR_NUMBER, car.getElevatorNumber());
+        buffer.putInt(offset + FLOOR_AT, car.getFloorAt());
+        buffer.putInt(offset + MIN_FLOOR, car.getMinFloor());
+        buffer.putInt(offset + MAX_FLOOR, car.getMaxFloor());
+        buffer.putInt(offset + CURRENT_LOAD, car.getCurrentLoad());
+        buffer.putInt(offset + MAX_CAPACITY, car.getMaxCapacity());
+        buffer.put(offset + DIRECTION, (byte) car.getDirection().ordinal());
+        buffer.put(offset + CONDITION, (byte) car.getCondition().ordinal());
+        buffer.putShort(offset + DIRECTION + 2, (short) 0);
+        buffer.putInt(offset + STOP_COUNT, stoppingFloors.size());
+        for (int wordIndex = 0; wordIndex < stopWords; wordIndex++) {
+            long word = wordIndex < stoppingFloors.wordCount() ? stoppingFloors.word(wordIndex) : 0;
+            buffer.putLong(offset + STOP_BITMAP + 8 * wordIndex, word);
+        }
+    }
+
+    private void encodeQuietly() {
+        try {
+            encode();
+        } catch (IOException e) {
+            System.out.println("Could not encode fleet state: " + e.getMessage());
+        }
+    }
+
+    // Writes the latest complete encoding; holding the monitor keeps the next pass out until the channel has it
+    public synchronized void writeTo(final WritableByteChannel channel) throws IOException {
+        ByteBuffer encoded = buffer.duplicate();
+        encoded.position(0).limit(HEADER_SIZE + buffer.getInt(ELEVATOR_SIZE) * buffer.getInt(ELEVATOR_COUNT));
+        while (encoded.hasRemaining()) {
+            channel.write(encoded);
+        }
+    }
+
+    public synchronized ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
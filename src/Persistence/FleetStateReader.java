@@ -0,0 +1,127 @@
+package Persistence;
+
+import Model.Condition;
+import Model.Direction;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+// Copies a consistent encoding out of a FleetStateEncoder buffer and reads it without allocating
+public class FleetStateReader {
+    private final ByteBuffer source;
+    private ByteBuffer snapshot;
+    private int elevatorSize;
+
+    public FleetStateReader(final ByteBuffer source) {
+        this.source = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.snapshot = ByteBuffer.allocate(source.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static FleetStateReader open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new FleetStateReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Returns the sequence of the copied encoding, or -1 when the writer has outgrown this mapping
+    public long refresh() {
+        if (source.getInt(0) != FleetStateEncoder.MAGIC || source.getInt(4) != FleetStateEncoder.FORMAT_VERSION) {
+            return -1;
+        }
+
+        while (true) {
+            long before = (long) FleetStateEncoder.LONG_VIEW.getVolatile(source, FleetStateEncoder.SEQUENCE);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int size = FleetStateEncoder.HEADER_SIZE + source.getInt(FleetStateEncoder.ELEVATOR_SIZE)
+                    * source.getInt(FleetStateEncoder.ELEVATOR_COUNT);
+            if (size <= source.capacity()) {
+                snapshot.put(0, source, 0, size);
+            }
+
+            VarHandle.loadLoadFence();
+            if ((long) FleetStateEncoder.LONG_VIEW.getVolatile(source, FleetStateEncoder.SEQUENCE) != before) {
+                continue;
+            }
+            if (size > source.capacity()) {
+                return -1;
+            }
+            elevatorSize = snapshot.getInt(FleetStateEncoder.ELEVATOR_SIZE);
+            return before;
+        }
+    }
+
+    public int getElevatorCount() {
+        return snapshot.getInt(FleetStateEncoder.ELEVATOR_COUNT);
+    }
+
+    public int getElevatorNumber(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.ELEVATOR_NUMBER);
+    }
+
+    public int getFloorAt(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.FLOOR_AT);
+    }
+
+    public int getMinFloor(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.MIN_FLOOR);
+    }
+
+    public int getMaxFloor(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.MAX_FLOOR);
+    }
+
+    public int getCurrentLoad(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.CURRENT_LOAD);
+    }
+
+    public int getMaxCapacity(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.MAX_CAPACITY);
+    }
+
+    public Direction getDirection(final int index) {
+        return Direction.values()[snapshot.get(offset(index) + FleetStateEncoder.DIRECTION)];
+    }
+
+    public Condition getCondition(final int index) {
+        return Condition.values()[snapshot.get(offset(index) + FleetStateEncoder.CONDITION)];
+    }
+
+    public int getStopCount(final int index) {
+        return snapshot.getInt(offset(index) + FleetStateEncoder.STOP_COUNT);
+    }
+
+    public boolean hasStop(final int index, final int floorNumber) {
+        int bit = floorNumber - getMinFloor(index);
+        if (bit < 0 || bit > getMaxFloor(index) - getMinFloor(index)) {
+            return false;
+        }
+        long word = snapshot.getLong(offset(index) + FleetStateEncoder.STOP_BITMAP + 8 * (bit >> 6));
+        return (word & (1L << bit)) != 0;
+    }
+
+    public void forEachStop(final int index, final IntConsumer action) {
+        int offset = offset(index);
+        int stopWords = snapshot.getInt(FleetStateEncoder.STOP_WORDS);
+        for (int wordIndex = 0; wordIndex < stopWords; wordIndex++) {
+            long word = snapshot.getLong(offset + FleetStateEncoder.STOP_BITMAP + 8 * wordIndex);
+            while (word != 0) {
+                action.accept(getMinFloor(index) + (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private int offset(final int index) {
+        return FleetStateEncoder.HEADER_SIZE + elevatorSize * index;
+    }
+}
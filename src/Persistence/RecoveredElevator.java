@@ -0,0 +1,158 @@
+package Persistence;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.Floor;
+import Model.StateChange;
+import Model.StopSet;
+import Model.Zone;
+import Service.ElevatorService;
+import Service.FloorService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// State of one car folded from the snapshot and the journal, installed into the service in a single step
+class RecoveredElevator {
+    private int elevatorNumber;
+    private int maxCapacity;
+    private int floorAt;
+    private int minFloor;
+    private int maxFloor;
+    private Direction direction;
+    private Condition condition;
+    private int currentLoad;
+    private final StopSet stoppingFloors;
+    private final Map<Integer, StopSet> destinationsByPickup;
+    private Zone zone;
+
+    RecoveredElevator(final int elevatorNumber, final int maxCapacity, final int floorAt, final int minFloor,
+                      final int maxFloor) {
+        this.elevatorNumber = elevatorNumber;
+        this.maxCapacity = maxCapacity;
+        this.floorAt = floorAt;
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.direction = Direction.STOP;
+        this.condition = Condition.WORKING;
+        this.stoppingFloors = new StopSet(minFloor, maxFloor);
+        this.destinationsByPickup = new HashMap<>();
+    }
+
+    void setElevatorNumber(final int elevatorNumber) {
+        this.elevatorNumber = elevatorNumber;
+    }
+
+    void setZone(final Zone zone) {
+        this.zone = zone;
+    }
+
+    void setDirection(final Direction direction) {
+        this.direction = direction;
+    }
+
+    void setCondition(final Condition condition) {
+        this.condition = condition;
+    }
+
+    void setCurrentLoad(final int currentLoad) {
+        this.currentLoad = currentLoad;
+    }
+
+    void addStoppingFloor(final int floorNumber) {
+        stoppingFloors.add(floorNumber);
+    }
+
+    void addDestination(final int pickupFloor, final int destinationFloor) {
+        destinationsByPickup.computeIfAbsent(pickupFloor, floorNumber -> new StopSet(minFloor, maxFloor))
+                .add(destinationFloor);
+    }
+
+    // Mirrors what the car did when the record was written; every record sets a value or adds to or clears a set,
+    // so a record the snapshot already reflects changes nothing
+    void apply(final StateChange change, final int floorNumber, final int value) {
+        switch (change) {
+            case STOP_ADDED:
+                stoppingFloors.add(floorNumber);
+                break;
+            case STOPS_CLEARED:
+                stoppingFloors.clear();
+                destinationsByPickup.clear();
+                break;
+            case DESTINATION_ADDED:
+                addDestination(floorNumber, value);
+                break;
+            case ARRIVED:
+                stoppingFloors.remove(floorNumber);
+                StopSet destinations = destinationsByPickup.remove(floorNumber);
+                if (destinations != null) {
+                    destinations.forEach(stoppingFloors::add);
+                }
+                floorAt = floorNumber;
+                direction = Direction.values()[value];
+                break;
+            case FLOOR_CHANGED:
+                floorAt = floorNumber;
+                break;
+            case DIRECTION_CHANGED:
+                direction = Direction.values()[value];
+                break;
+            case RANGE_CHANGED:
+                minFloor = floorNumber;
+                maxFloor = value;
+                stoppingFloors.resize(minFloor, maxFloor);
+                break;
+            case CONDITION_CHANGED:
+                condition = Condition.values()[value];
+                break;
+            case LOAD_CHANGED:
+                currentLoad = value;
+                break;
+            case CAPACITY_CHANGED:
+                maxCapacity = value;
+                break;
+            default:
+                break;
+        }
+    }
+
+    boolean install(final ElevatorService elevatorService, final FloorService floorService,
+                    final Map<String, Zone> zones) {
+        Floor floor = floorService.getFloor(floorAt);
+        Floor lowest = floorService.getFloor(minFloor);
+        Floor highest = floorService.getFloor(maxFloor);
+        if (floor == null || lowest == null || highest == null) {
+            System.out.println("Recovered elevator " + elevatorNumber + " refers to floors that do not exist");
+            return false;
+        }
+
+        // A zoned car rejoins its bank, which also gives the router its zone back
+        if (zone != null) {
+            elevatorService.addElevator(elevatorNumber, maxCapacity, floor, zones.computeIfAbsent(zone.getName(),
+                    name -> zone));
+        } else {
+            elevatorService.addElevator(elevatorNumber, maxCapacity, floor, lowest, highest);
+        }
+        Elevator elevator = elevatorService.getElevator(elevatorNumber);
+        if (elevator == null) {
+            System.out.println("Recovered elevator " + elevatorNumber + " could not rejoin zone " + zone);
+            return false;
+        }
+        synchronized (elevator) {
+            if (elevator.getMinFloor() != lowest) {
+                elevator.setMinFloor(lowest);
+            }
+            if (elevator.getMaxFloor() != highest) {
+                elevator.setMaxFloor(highest);
+            }
+            stoppingFloors.forEach(elevator::addStoppingFloor);
+            destinationsByPickup.forEach((pickupFloor, destinations) ->
+                    destinations.forEach(destinationFloor -> elevator.addDestination(pickupFloor, destinationFloor)));
+            elevator.setDirection(direction);
+            elevator.changeCondition(condition);
+            elevator.increaseCurrentLoad(currentLoad - elevator.getCurrentLoad());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package Persistence;
+
+import Model.StateChange;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StateJournal {
+    // type byte followed by elevator, floor, value, min floor and max floor
+    static final int RECORD_SIZE = 21;
+    // Marks a record that carries the next bytes of the attachment of the record before it
+    private static final byte CONTINUATION = Byte.MAX_VALUE;
+    private static final int CHUNK_SIZE = RECORD_SIZE - 1;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final AtomicInteger position;
+
+    private StateJournal(final Path path, final MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.position = new AtomicInteger();
+    }
+
+    // The file is sized up front; its zero fill marks where the written records end
+    public static StateJournal create(final Path path, final int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new StateJournal(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Returns false once the segment is full; the caller moves on to a new one
+    public boolean append(final StateChange change, final int elevatorNumber, final int floorNumber, final int value,
+                          final int minFloor, final int maxFloor) {
+        return append(change, elevatorNumber, floorNumber, value, minFloor, maxFloor, null);
+    }
+
+    // The attachment follows the record in as many continuation records as it needs; the record's own type is
+    // written last, so a crash part way through leaves neither
+    public boolean append(final StateChange change, final int elevatorNumber, final int floorNumber, final int value,
+                          final int minFloor, final int maxFloor, final byte[] attachment) {
+        int chunks = attachment == null ? 0 : (attachment.length + Integer.BYTES + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int size = RECORD_SIZE * (1 + chunks);
+        // Claims the space only if it fits, so a full segment that cannot be rotated keeps its position
+        int offset;
+        do {
+            offset = position.get();
+            if (offset > buffer.capacity() - size) {
+                return false;
+            }
+        } while (!position.compareAndSet(offset, offset + size));
+
+        if (attachment != null) {
+            byte[] payload = new byte[chunks * CHUNK_SIZE];
+            ByteBuffer.wrap(payload).putInt(attachment.length).put(attachment);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int chunkOffset = offset + RECORD_SIZE * (1 + chunk);
+                buffer.put(chunkOffset + 1, payload, chunk * CHUNK_SIZE, CHUNK_SIZE);
+                buffer.put(chunkOffset, CONTINUATION);
+            }
+        }
+        buffer.putInt(offset + 1, elevatorNumber);
+        buffer.putInt(offset + 5, floorNumber);
+        buffer.putInt(offset + 9, value);
+        buffer.putInt(offset + 13, minFloor);
+        buffer.putInt(offset + 17, maxFloor);
+        // The type goes in last, so a record torn by a crash reads as the end of the segment
+        buffer.put(offset, (byte) (change.ordinal() + 1));
+        return true;
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    public static int replay(final Path path, final RecordHandler handler) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        StateChange[] changes = StateChange.values();
+        int records = 0;
+        int offset = 0;
+        while (offset <= buffer.capacity() - RECORD_SIZE) {
+            int type = buffer.get(offset);
+            if (type <= 0 || type > changes.length) {
+                break;
+            }
+            int next = offset + RECORD_SIZE;
+            int chunks = 0;
+            while (next + chunks * RECORD_SIZE <= buffer.capacity() - RECORD_SIZE
+                    && buffer.get(next + chunks * RECORD_SIZE) == CONTINUATION) {
+                chunks++;
+            }
+            byte[] attachment = null;
+            if (chunks > 0) {
+                byte[] payload = new byte[chunks * CHUNK_SIZE];
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    buffer.get(next + chunk * RECORD_SIZE + 1, payload, chunk * CHUNK_SIZE, CHUNK_SIZE);
+                }
+                ByteBuffer reader = ByteBuffer.wrap(payload);
+                attachment = new byte[reader.getInt()];
+                reader.get(attachment);
+            }
+            handler.onRecord(changes[type - 1], buffer.getInt(offset + 1), buffer.getInt(offset + 5),
+                    buffer.getInt(offset + 9), buffer.getInt(offset + 13), buffer.getInt(offset + 17), attachment);
+            records++;
+            offset = next + chunks * RECORD_SIZE;
+        }
+        return records;
+    }
+
+    public interface RecordHandler {
+        // The attachment is null for a record written without one
+        void onRecord(StateChange change, int elevatorNumber, int floorNumber, int value, int minFloor, int maxFloor,
+                      byte[] attachment);
+    }
+}
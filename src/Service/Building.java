@@ -0,0 +1,58 @@
+package Service;
+
+public class Building {
+    private final String name;
+    private final FloorService floorService;
+    private final ElevatorService elevatorService;
+    private final ElevatorManagementService elevatorManagementService;
+    private final ElevatorMetrics elevatorMetrics;
+    private final EventJournal eventJournal;
+
+    // Each building has its own journal, so one busy building cannot fill the ring and drop another's events
+    public Building(final String name) {
+        this.name = name;
+        this.eventJournal = EventJournal.forBuilding(name);
+        this.floorService = new FloorService(eventJournal);
+        this.elevatorMetrics = new ElevatorMetrics(name);
+        this.elevatorService = new ElevatorService(floorService, elevatorMetrics, eventJournal);
+        this.elevatorManagementService = new ElevatorManagementService(elevatorService, floorService,
+                elevatorMetrics, 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FloorService getFloorService() {
+        return floorService;
+    }
+
+    public ElevatorService getElevatorService() {
+        return elevatorService;
+    }
+
+    public ElevatorManagementService getElevatorManagementService() {
+        return elevatorManagementService;
+    }
+
+    public ElevatorMetrics getElevatorMetrics() {
+        return elevatorMetrics;
+    }
+
+    public EventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    // One dispatch cycle followed by one movement tick, run on the building's shard thread
+    void cycle() {
+        elevatorManagementService.getHallCallBatcher().dispatchBatch();
+        elevatorManagementService.moveElevators();
+    }
+
+    // Stops the building's own threads and takes its metrics out of JMX
+    void close() {
+        elevatorManagementService.stop();
+        elevatorMetrics.unregisterMBean();
+        eventJournal.close();
+    }
+}
@@ -0,0 +1,114 @@
+package Service;
+
+import Model.EventType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class BuildingRegistry {
+    private final Map<String, Building> buildings;
+    private final List<Shard> shards;
+
+    public BuildingRegistry(final int shardCount, final long tickPeriodMillis) {
+        this.buildings = new ConcurrentHashMap<>();
+        this.shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i, tickPeriodMillis));
+        }
+    }
+
+    public BuildingRegistry(final long tickPeriodMillis) {
+        this(Runtime.getRuntime().availableProcessors(), tickPeriodMillis);
+    }
+
+    // Synchronized so two adds of one name cannot both build a building, with its metrics MBean, and lose one
+    public synchronized Building addBuilding(final String name) {
+        Building existing = buildings.get(name);
+        if (existing != null) {
+            existing.getEventJournal().record(EventType.DUPLICATE_BUILDING, -1, -1);
+            return existing;
+        }
+
+        // Every building is ticked by exactly one shard thread, so buildings never share a mover
+        Building building = new Building(name);
+        buildings.put(name, building);
+        leastLoadedShard().add(building);
+        return building;
+    }
+
+    public Building getBuilding(final String name) {
+        return buildings.get(name);
+    }
+
+    public Collection<Building> getBuildings() {
+        return Collections.unmodifiableCollection(buildings.values());
+    }
+
+    // False when there is no building of that name
+    public synchronized boolean removeBuilding(final String name) {
+        Building building = buildings.remove(name);
+        if (building == null) {
+            EventJournal.getInstance().record(EventType.BUILDING_NOT_PRESENT, -1, -1);
+            return false;
+        }
+        for (Shard shard: shards) {
+            shard.buildings.remove(building);
+        }
+        building.close();
+        return true;
+    }
+
+    public void shutdown() {
+        for (Shard shard: shards) {
+            shard.scheduler.shutdown();
+        }
+    }
+
+    private synchronized Shard leastLoadedShard() {
+        Shard leastLoaded = shards.get(0);
+        for (Shard shard: shards) {
+            if (shard.buildings.size() < leastLoaded.buildings.size()) {
+                leastLoaded = shard;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private static class Shard {
+        private final List<Building> buildings;
+        private final ScheduledExecutorService scheduler;
+
+        private Shard(final int index, final long tickPeriodMillis) {
+            this.buildings = new CopyOnWriteArrayList<>();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "building-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::cycle, tickPeriodMillis, tickPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void add(final Building building) {
+            buildings.add(building);
+        }
+
+        private void cycle() {
+            for (Building building: buildings) {
+                // One failing building must not cancel the shard's schedule for the others
+                try {
+                    building.cycle();
+                } catch (RuntimeException e) {
+                    building.getEventJournal().record(EventType.CYCLE_FAILED, -1, -1);
+                }
+            }
+        }
+    }
+}
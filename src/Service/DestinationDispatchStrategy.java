@@ -0,0 +1,35 @@
+package Service;
+
+import Model.ElevatorSnapshot;
+import Model.HallCall;
+
+public class DestinationDispatchStrategy extends EtaDispatchStrategy {
+    private final double newStopSeconds;
+
+    public DestinationDispatchStrategy(final double secondsPerFloor, final double dwellSeconds,
+                                       final double newStopSeconds) {
+        super(secondsPerFloor, dwellSeconds);
+        this.newStopSeconds = newStopSeconds;
+    }
+
+    public DestinationDispatchStrategy() {
+        this(1.5, 8, 20);
+    }
+
+    @Override
+    protected double getCost(final ElevatorSnapshot car, final HallCall hallCall) {
+        double cost = super.getCost(car, hallCall);
+        if (!hallCall.hasDestination()) {
+            return cost;
+        }
+
+        // Riders sharing a pickup and destination ride together, so only stops the car doesn't already make cost extra
+        if (!car.getStoppingFloors().contains(hallCall.getStartingFloor())) {
+            cost += newStopSeconds;
+        }
+        if (!car.hasDestination(hallCall.getDestinationFloor())) {
+            cost += newStopSeconds;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,9 @@
+package Service;
+
+import Model.ElevatorPosition;
+import Model.HallCall;
+
+public interface DispatchStrategy {
+    // Returns the car that should answer the call, or null when no car can serve it
+    ElevatorPosition selectElevator(ElevatorService elevatorService, HallCall hallCall);
+}
@@ -0,0 +1,263 @@
+package Service;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.ElevatorPosition;
+import Model.StateChange;
+import Model.StopSet;
+import Model.Zone;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class ElevatorIndex implements ElevatorListener {
+    // One partition per zone, or per floor range for cars outside any zone, each holding a skip list per travel
+    // direction. Keys are the Zone itself or the packed range
+    private final Map<Object, Partition> partitions;
+    // The partitions that stop at each floor, so a call never looks at a bank that cannot serve it
+    private volatile FloorPartitions floorPartitions;
+    private final Map<Integer, ElevatorPosition> positions;
+    private volatile double fullLoadFraction;
+
+    public ElevatorIndex(final double fullLoadFraction) {
+        this.partitions = new ConcurrentHashMap<>();
+        this.floorPartitions = new FloorPartitions(0, new Partition[0][]);
+        this.positions = new ConcurrentHashMap<>();
+        this.fullLoadFraction = fullLoadFraction;
+    }
+
+    public double getFullLoadFraction() {
+        return fullLoadFraction;
+    }
+
+    // Takes effect for each car at its next update
+    public void setFullLoadFraction(final double fullLoadFraction) {
+        this.fullLoadFraction = fullLoadFraction;
+    }
+
+    // Called by the elevator under its own monitor, so updates for one car never interleave
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        if (change == StateChange.NUMBER_CHANGED) {
+            remove(value);
+        }
+        if (change != StateChange.DESTINATION_ADDED) {
+            update(elevator);
+        }
+    }
+
+    // Out-of-service and nearly full cars are kept out of the index until they can take riders again
+    public void update(final Elevator elevator) {
+        remove(elevator);
+        if (elevator.getElevatorCondition() != Condition.WORKING) {
+            return;
+        }
+
+        ElevatorPosition position = new ElevatorPosition(elevator);
+        if (position.getLoadFactor() >= fullLoadFraction) {
+            return;
+        }
+        partitionFor(position)
+                .byDirection(position.getDirection())
+                .put(pack(position.getReferenceFloor(), elevator.getElevatorNumber()), position);
+        positions.put(elevator.getElevatorNumber(), position);
+    }
+
+    public void remove(final Elevator elevator) {
+        remove(elevator.getElevatorNumber());
+    }
+
+    private void remove(final int elevatorNumber) {
+        ElevatorPosition previous = positions.remove(elevatorNumber);
+        if (previous != null) {
+            partitions.get(key(previous))
+                    .byDirection(previous.getDirection())
+                    .remove(pack(previous.getReferenceFloor(), elevatorNumber), previous);
+        }
+    }
+
+    private Partition partitionFor(final ElevatorPosition position) {
+        Partition partition = partitions.get(key(position));
+        return partition != null ? partition : createPartition(position);
+    }
+
+    // New banks are rare, so the per-floor lookup is rebuilt copy-on-write under the index's lock
+    private synchronized Partition createPartition(final ElevatorPosition position) {
+        Object key = key(position);
+        Partition partition = partitions.get(key);
+        if (partition != null) {
+            return partition;
+        }
+
+        partition = new Partition(position.getZone(), position.getMinFloor(), position.getMaxFloor());
+        FloorPartitions current = floorPartitions;
+        int lowest = current.byFloor.length == 0 ? partition.minFloor : Math.min(current.lowest, partition.minFloor);
+        int highest = current.byFloor.length == 0 ? partition.maxFloor
+                : Math.max(current.lowest + current.byFloor.length - 1, partition.maxFloor);
+        Partition[][] byFloor = new Partition[highest - lowest + 1][];
+        // The empty table's base of 0 means nothing, so it is not copied
+        if (current.byFloor.length > 0) {
+            System.arraycopy(current.byFloor, 0, byFloor, current.lowest - lowest, current.byFloor.length);
+        }
+        for (int floor = partition.minFloor; floor <= partition.maxFloor; floor++) {
+            if (partition.serves(floor)) {
+                Partition[] serving = byFloor[floor - lowest] == null ? new Partition[0] : byFloor[floor - lowest];
+                serving = Arrays.copyOf(serving, serving.length + 1);
+                serving[serving.length - 1] = partition;
+                byFloor[floor - lowest] = serving;
+            }
+        }
+        partitions.put(key, partition);
+        floorPartitions = new FloorPartitions(lowest, byFloor);
+        return partition;
+    }
+
+    private static Object key(final ElevatorPosition position) {
+        if (position.getZone() != null) {
+            return position.getZone();
+        }
+        return pack(position.getMinFloor(), position.getMaxFloor());
+    }
+
+    public ElevatorPosition findNearest(final Direction direction, final int startingFloor) {
+        return findNearest(direction, startingFloor, StopSet.NONE);
+    }
+
+    // Only banks stopping at both floors are searched; a destination of StopSet.NONE matches every bank
+    public ElevatorPosition findNearest(final Direction direction, final int startingFloor,
+                                        final int destinationFloor) {
+        Partition[] serving = floorPartitions.get(startingFloor);
+        if (serving == null) {
+            return null;
+        }
+
+        ElevatorPosition nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (Partition partition: serving) {
+            if (destinationFloor != StopSet.NONE && !partition.serves(destinationFloor)) {
+                continue;
+            }
+
+            // Only the closest key on the reachable side of the call can win inside each skip list
+            ElevatorPosition[] candidates;
+            if (direction == Direction.UP) {
+                candidates = new ElevatorPosition[] {
+                        below(partition.up, startingFloor),
+                        above(partition.down, startingFloor),
+                        below(partition.stopped, startingFloor),
+                        above(partition.stopped, startingFloor)};
+            } else {
+                candidates = new ElevatorPosition[] {
+                        above(partition.up, startingFloor),
+                        below(partition.down, startingFloor),
+                        below(partition.stopped, startingFloor),
+                        above(partition.stopped, startingFloor)};
+            }
+
+            for (ElevatorPosition candidate: candidates) {
+                if (candidate == null) {
+                    continue;
+                }
+                int distance = candidate.getDistance(direction, startingFloor);
+                if (distance>=0 && distance<nearestDistance) {
+                    nearest = candidate;
+                    nearestDistance = distance;
+                }
+            }
+        }
+
+        return nearest;
+    }
+
+    // Every indexed car of the banks stopping at both floors, for strategies that rank cars themselves
+    public void collectCandidates(final int startingFloor, final int destinationFloor, final List<Elevator> cars) {
+        Partition[] serving = floorPartitions.get(startingFloor);
+        if (serving == null) {
+            return;
+        }
+        for (Partition partition: serving) {
+            if (destinationFloor != StopSet.NONE && !partition.serves(destinationFloor)) {
+                continue;
+            }
+            for (ElevatorPosition position: partition.up.values()) {
+                cars.add(position.getElevator());
+            }
+            for (ElevatorPosition position: partition.down.values()) {
+                cars.add(position.getElevator());
+            }
+            for (ElevatorPosition position: partition.stopped.values()) {
+                cars.add(position.getElevator());
+            }
+        }
+    }
+
+    private ElevatorPosition below(final NavigableMap<Long, ElevatorPosition> cars, final int floorNumber) {
+        Map.Entry<Long, ElevatorPosition> entry = cars.floorEntry(pack(floorNumber, -1));
+        return entry == null ? null : entry.getValue();
+    }
+
+    private ElevatorPosition above(final NavigableMap<Long, ElevatorPosition> cars, final int floorNumber) {
+        Map.Entry<Long, ElevatorPosition> entry = cars.ceilingEntry(pack(floorNumber, 0));
+        return entry == null ? null : entry.getValue();
+    }
+
+    private static long pack(final int high, final int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static class FloorPartitions {
+        private final int lowest;
+        private final Partition[][] byFloor;
+
+        private FloorPartitions(final int lowest, final Partition[][] byFloor) {
+            this.lowest = lowest;
+            this.byFloor = byFloor;
+        }
+
+        private Partition[] get(final int floorNumber) {
+            int index = floorNumber - lowest;
+            return index >= 0 && index < byFloor.length ? byFloor[index] : null;
+        }
+    }
+
+    private static class Partition {
+        private final Zone zone;
+        private final int minFloor;
+        private final int maxFloor;
+        private final NavigableMap<Long, ElevatorPosition> up;
+        private final NavigableMap<Long, ElevatorPosition> down;
+        private final NavigableMap<Long, ElevatorPosition> stopped;
+
+        private Partition(final Zone zone, final int minFloor, final int maxFloor) {
+            this.zone = zone;
+            this.minFloor = minFloor;
+            this.maxFloor = maxFloor;
+            this.up = new ConcurrentSkipListMap<>();
+            this.down = new ConcurrentSkipListMap<>();
+            this.stopped = new ConcurrentSkipListMap<>();
+        }
+
+        private boolean serves(final int floorNumber) {
+            if (zone != null) {
+                return zone.serves(floorNumber);
+            }
+            return floorNumber >= minFloor && floorNumber <= maxFloor;
+        }
+
+        private NavigableMap<Long, ElevatorPosition> byDirection(final Direction direction) {
+            if (direction == Direction.UP) {
+                return up;
+            } else if (direction == Direction.DOWN) {
+                return down;
+            }
+            return stopped;
+        }
+    }
+}
@@ -1,95 +1,251 @@
 package Service;
 
+import Model.Condition;
 import Model.Direction;
 import Model.Elevator;
-import Model.ElevatorDistance;
-import Model.Floor;
+import Model.ElevatorPosition;
+import Model.EventType;
+import Model.HallCall;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 public class ElevatorManagementService {
-    private static final ElevatorManagementService instance = new ElevatorManagementService();
+    private static final int MAX_ASSIGN_ATTEMPTS = 4;
     private final ElevatorService elevatorService;
     private final FloorService floorService;
-    private List<Elevator> allAvailableElevators;
-    private final ScheduledExecutorService scheduler;
+    private final TickEngine tickEngine;
+    private final HallCallBatcher hallCallBatcher;
+    private volatile DispatchStrategy dispatchStrategy;
+    private volatile ParkingPlanner parkingPlanner;
+    private volatile TraceRecorder traceRecorder;
+    private final EventJournal eventJournal;
+    private final ElevatorMetrics elevatorMetrics;
 
-    private ElevatorManagementService() {
-        this.elevatorService = ElevatorService.getInstance();
-        this.floorService = FloorService.getInstance();
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(this::moveElevators, 1, 1, TimeUnit.SECONDS);
+    // Ticking and batched dispatch are left to the caller: either start() or an external scheduler
+    public ElevatorManagementService(final ElevatorService elevatorService, final FloorService floorService,
+                                     final ElevatorMetrics elevatorMetrics, final int tickParallelism) {
+        this.elevatorService = elevatorService;
+        this.floorService = floorService;
+        this.tickEngine = new TickEngine(elevatorService, Long.getLong("elevator.tickPeriodMillis", 1000),
+                tickParallelism);
+        this.dispatchStrategy = new NearestCarDispatchStrategy();
+        this.eventJournal = elevatorService.getEventJournal();
+        this.elevatorMetrics = elevatorMetrics;
+        this.hallCallBatcher = new HallCallBatcher(this, Integer.getInteger("elevator.hallCallQueueCapacity", 4096),
+                Long.getLong("elevator.dispatchPeriodMillis", 100));
+        registerMetrics();
+    }
+
+    private static ElevatorManagementService createDefault() {
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(
+                ElevatorService.getInstance(), FloorService.getInstance(), ElevatorMetrics.getInstance(),
+                Runtime.getRuntime().availableProcessors());
+
+        Integer metricsPort = Integer.getInteger("elevator.metricsPort");
+        if (metricsPort != null) {
+            try {
+                new MetricsEndpoint(ElevatorMetrics.getInstance(), metricsPort).start();
+            } catch (IOException e) {
+                System.out.println("Could not start metrics endpoint: " + e.getMessage());
+            }
+        }
+        Integer requestPort = Integer.getInteger("elevator.requestPort");
+        if (requestPort != null) {
+            RequestFrontEnd requestFrontEnd = new RequestFrontEnd(elevatorManagementService,
+                    ElevatorService.getInstance(), FloorService.getInstance());
+            requestFrontEnd.registerMetrics(ElevatorMetrics.getInstance());
+            try {
+                new RequestEndpoint(requestFrontEnd, requestPort).start();
+            } catch (IOException e) {
+                System.out.println("Could not start request endpoint: " + e.getMessage());
+            }
+        }
+        elevatorManagementService.start();
+        return elevatorManagementService;
+    }
+
+    private void registerMetrics() {
+        elevatorMetrics.registerGauge("elevator_hall_call_queue_depth", hallCallBatcher::getQueueDepth);
+        elevatorMetrics.registerGauge("elevator_tick_last_nanos", tickEngine::getLastTickNanos);
+        elevatorMetrics.registerGauge("elevator_tick_max_nanos", tickEngine::getMaxTickNanos);
+        elevatorMetrics.registerGauge("elevator_tick_missed_deadlines", tickEngine::getMissedDeadlines);
+        elevatorMetrics.registerGauge("elevator_tick_active_elevators", tickEngine::getActiveElevators);
+        elevatorMetrics.registerGauge("elevator_journal_dropped_events", eventJournal::getDroppedEvents);
+        elevatorMetrics.registerMBean();
+    }
+
+    public void start() {
+        tickEngine.start();
+        hallCallBatcher.start();
+    }
+
+    public void stop() {
+        tickEngine.stop();
+        hallCallBatcher.stop();
     }
 
     public static ElevatorManagementService getInstance() {
-        return instance;
+        return DefaultHolder.instance;
     }
 
 
-    public synchronized int requestElevator(final Direction direction, final int startingFloor) {
-        allAvailableElevators = new CopyOnWriteArrayList<>(elevatorService.getAllElevator());
-        Queue<ElevatorDistance> availableElevators = new PriorityQueue<>();
+    public void setDispatchStrategy(final DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
 
-        int d = 0;
-        if (direction==Direction.UP) {
-            d = 1;
-        } else {
-            d = -1;
+    // Hall calls are fed to the planner so it can learn the building's traffic
+    public void setParkingPlanner(final ParkingPlanner parkingPlanner) {
+        this.parkingPlanner = parkingPlanner;
+    }
+
+    // Records every hall call, button press, tick and change to a car's condition or load; null stops recording
+    public void setTraceRecorder(final TraceRecorder traceRecorder) {
+        TraceRecorder previous = this.traceRecorder;
+        if (previous != null) {
+            elevatorService.removeElevatorListener(previous);
+        }
+        if (traceRecorder != null) {
+            elevatorService.addElevatorListener(traceRecorder);
         }
+        this.traceRecorder = traceRecorder;
+        elevatorService.setTraceRecorder(traceRecorder);
+        tickEngine.setTraceRecorder(traceRecorder);
+    }
 
-        for (Elevator elevator: allAvailableElevators) {
-            if (elevator.getDirection().equals(Direction.UP)) {
-                int distance = d*(startingFloor-elevator.getFloorAt().getFloorNumber());
-                if (distance>=0 && startingFloor>=elevator.getMinFloor().getFloorNumber() &&
-                        startingFloor<=elevator.getMaxFloor().getFloorNumber()) {
-                    availableElevators.add(new ElevatorDistance(elevator, distance));
-                }
-            } else if (elevator.getDirection().equals(Direction.DOWN)) {
-                List<Floor> floors = elevator.getStoppingFloors().stream().toList();
-                int distance = d*(floors.get(floors.size()-1).getFloorNumber() - startingFloor);
+    public int requestElevator(final Direction direction, final int startingFloor) {
+        return requestElevator(new HallCall(direction, startingFloor));
+    }
+
+    public int requestElevator(final int startingFloor, final int destinationFloor) {
+        if (!floorService.checkFloorNumber(destinationFloor)) {
+            eventJournal.record(EventType.INVALID_FLOOR, -1, destinationFloor);
+            return -1;
+        }
+        return requestElevator(new HallCall(startingFloor, destinationFloor));
+    }
+
+    public CompletableFuture<Integer> submitHallCall(final Direction direction, final int startingFloor) {
+        return hallCallBatcher.submit(direction, startingFloor);
+    }
+
+    public CompletableFuture<Integer> submitHallCall(final int startingFloor, final int destinationFloor) {
+        return hallCallBatcher.submit(startingFloor, destinationFloor);
+    }
+
+    public int requestElevator(final HallCall call) {
+        int assigned = dispatch(call);
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordHallCall(call, assigned);
+        }
+        return assigned;
+    }
+
+    private int dispatch(final HallCall call) {
+        if (!floorService.checkFloorNumber(call.getStartingFloor())) {
+            eventJournal.record(EventType.INVALID_FLOOR, -1, call.getStartingFloor());
+            return -1;
+        }
+        HallCall hallCall = firstLeg(call);
+
+        ParkingPlanner planner = parkingPlanner;
+        if (planner != null) {
+            planner.recordHallCall(hallCall);
+        }
+
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            ElevatorPosition selected = dispatchStrategy.selectElevator(elevatorService, hallCall);
 
-                if (distance>=0 && startingFloor>=elevator.getMinFloor().getFloorNumber() &&
-                        startingFloor<=elevator.getMaxFloor().getFloorNumber()) {
-                    availableElevators.add(new ElevatorDistance(elevator, distance));
+            if (selected == null) {
+                eventJournal.record(EventType.NO_ELEVATOR_AVAILABLE, -1, hallCall.getStartingFloor());
+                elevatorMetrics.recordDispatch(System.nanoTime() - start);
+                return -1;
+            }
+
+            // The car moved or took another call since it was ranked, so look again unless we keep losing the race
+            Elevator elevator = selected.getElevator();
+            if (attempt < MAX_ASSIGN_ATTEMPTS) {
+                if (!elevator.assignHallCall(hallCall, selected.getVersion())) {
+                    continue;
                 }
             } else {
-                if (startingFloor>=elevator.getMinFloor().getFloorNumber() && startingFloor<=elevator.getMaxFloor().getFloorNumber()) {
-                    availableElevators.add(new ElevatorDistance(elevator, Math.abs(startingFloor-elevator.getFloorAt().getFloorNumber())));
+                synchronized (elevator) {
+                    if (elevator.getElevatorCondition() != Condition.WORKING) {
+                        continue;
+                    }
+                    elevator.assignHallCall(hallCall);
                 }
             }
+
+            elevatorMetrics.recordHallCallAssigned(elevator.getElevatorNumber(), hallCall.getStartingFloor());
+            elevatorMetrics.recordDispatch(System.nanoTime() - start);
+            eventJournal.record(EventType.ASSIGNED, elevator.getElevatorNumber(), hallCall.getStartingFloor());
+            return elevator.getElevatorNumber();
         }
+    }
 
-        if (availableElevators.isEmpty()) {
-            System.out.println("No Elevator is available");
-            return -1;
+    // A ride no single bank serves is dispatched to its first transfer floor
+    private HallCall firstLeg(final HallCall hallCall) {
+        if (!hallCall.hasDestination()) {
+            return hallCall;
+        }
+        int legFloor = elevatorService.getZoneRouter().nextLeg(hallCall.getStartingFloor(),
+                hallCall.getDestinationFloor());
+        if (legFloor == hallCall.getDestinationFloor()) {
+            return hallCall;
         }
+        eventJournal.record(EventType.TRANSFER, -1, legFloor);
+        return new HallCall(hallCall.getStartingFloor(), legFloor);
+    }
 
-        Elevator elevator = availableElevators.peek().getElevator();
-        elevator.addStoppingFloor(floorService.getFloor(startingFloor));
+    public int changeElevatorCondition(final int elevatorNumber, final Condition condition) {
+        return changeElevatorCondition(Collections.singletonList(elevatorNumber), condition);
+    }
 
-        if (elevator.getDirection()==Direction.STOP) {
-            if (startingFloor >= elevator.getFloorAt().getFloorNumber()) {
-                elevator.setDirection(Direction.UP);
-            } else {
-                elevator.setDirection(Direction.DOWN);
+    // Takes every listed car out of (or back into) service first, then hands all the calls the failed cars held to
+    // the remaining fleet in a single sweep-ordered pass. Returns how many of those calls found a new car
+    public int changeElevatorCondition(final Collection<Integer> elevatorNumbers, final Condition condition) {
+        List<HallCall> strandedCalls = new ArrayList<>();
+        for (int elevatorNumber: elevatorNumbers) {
+            strandedCalls.addAll(elevatorService.changeElevatorCondition(elevatorNumber, condition));
+        }
+
+        strandedCalls.sort(Comparator.comparingInt(HallCallBatcher::sweepOrder));
+        int reassigned = 0;
+        for (HallCall hallCall: strandedCalls) {
+            // Reassignments follow from the condition change, so a trace does not record them as calls
+            if (dispatch(hallCall) != -1) {
+                reassigned++;
             }
         }
-        System.out.println("Requested elevator is " + elevator.getElevatorNumber());
-        return elevator.getElevatorNumber();
+        return reassigned;
     }
 
     public void moveElevators() {
-        for (Elevator elevator: elevatorService.getAllElevator()) {
-            if (elevator.getDirection() != Direction.STOP) {
-                System.out.println("Elevator moved to: " + elevator.getFloorAt().getFloorNumber());
-                elevatorService.moveToNextFloor(elevator);
-            }
-        }
+        tickEngine.tick();
+    }
+
+    public EventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    public TickEngine getTickEngine() {
+        return tickEngine;
+    }
+
+    public HallCallBatcher getHallCallBatcher() {
+        return hallCallBatcher;
+    }
+
+    // Built on first use, so a class that only makes its own buildings never starts the default one
+    private static class DefaultHolder {
+        private static final ElevatorManagementService instance = createDefault();
     }
 }
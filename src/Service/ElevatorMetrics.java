@@ -0,0 +1,313 @@
+package Service;
+
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.StateChange;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class ElevatorMetrics implements ElevatorMetricsMBean, ElevatorListener {
+    private static final ElevatorMetrics instance = new ElevatorMetrics("default");
+
+    private final String buildingName;
+    private final LatencyHistogram dispatchLatencyNanos;
+    private final LatencyHistogram waitTimeMillis;
+    private final Map<Integer, CarCounters> carCounters;
+    private final Map<String, LongSupplier> gauges;
+
+    public ElevatorMetrics(final String buildingName) {
+        this.buildingName = buildingName;
+        this.dispatchLatencyNanos = new LatencyHistogram();
+        this.waitTimeMillis = new LatencyHistogram();
+        this.carCounters = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+    }
+
+    public static ElevatorMetrics getInstance() {
+        return instance;
+    }
+
+    public void registerMBean() {
+        try {
+            ObjectName name = objectName();
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            ObjectName name = objectName();
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            System.out.println("Could not unregister metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private ObjectName objectName() throws JMException {
+        return new ObjectName("ElevatorManagementSystem:type=Metrics,building=" + ObjectName.quote(buildingName));
+    }
+
+    public void registerGauge(final String name, final LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public void registerElevator(final Elevator elevator) {
+        carCounters.putIfAbsent(elevator.getElevatorNumber(), new CarCounters(elevator));
+        elevator.addListener(this);
+    }
+
+    // A renumbered car keeps its counters under its new number
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        if (change != StateChange.NUMBER_CHANGED) {
+            return;
+        }
+        CarCounters counters = carCounters.get(value);
+        if (counters != null && counters.elevator == elevator && carCounters.remove(value, counters)) {
+            carCounters.put(elevator.getElevatorNumber(), counters);
+        }
+    }
+
+    public void recordDispatch(final long latencyNanos) {
+        dispatchLatencyNanos.record(latencyNanos);
+    }
+
+    // The first call for a floor starts the wait; later calls for the same floor ride on it
+    public void recordHallCallAssigned(final int elevatorNumber, final int floorNumber) {
+        CarCounters counters = carCounters.get(elevatorNumber);
+        if (counters != null) {
+            counters.callWaitingSince(floorNumber, System.currentTimeMillis());
+        }
+    }
+
+    // Floors covered without stopping: no stop is served and no waiting call is answered
+    public void recordTravel(final int elevatorNumber, final int fromFloor, final int toFloor) {
+        CarCounters counters = carCounters.get(elevatorNumber);
+        if (counters == null) {
+            return;
+        }
+
+        counters.floorsTravelled.add(Math.abs(toFloor - fromFloor));
+        counters.busy(System.currentTimeMillis());
+    }
+
+    public void recordArrival(final int elevatorNumber, final int fromFloor, final int toFloor) {
+        CarCounters counters = carCounters.get(elevatorNumber);
+        if (counters == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        counters.floorsTravelled.add(Math.abs(toFloor - fromFloor));
+        counters.stopsServed.increment();
+        counters.busy(now);
+        long waitingSince = counters.callAnswered(toFloor);
+        if (waitingSince > 0) {
+            waitTimeMillis.record(now - waitingSince);
+        }
+    }
+
+    public void recordIdle(final int elevatorNumber) {
+        CarCounters counters = carCounters.get(elevatorNumber);
+        if (counters != null) {
+            counters.idle(System.currentTimeMillis());
+        }
+    }
+
+    public void recordCapacityBlocked(final int elevatorNumber) {
+        CarCounters counters = carCounters.get(elevatorNumber);
+        if (counters != null) {
+            counters.capacityBlocked.increment();
+        }
+    }
+
+    public LatencyHistogram getDispatchLatencyNanos() {
+        return dispatchLatencyNanos;
+    }
+
+    public LatencyHistogram getWaitTimeMillis() {
+        return waitTimeMillis;
+    }
+
+    @Override
+    public long getHallCallsDispatched() {
+        return dispatchLatencyNanos.getCount();
+    }
+
+    @Override
+    public long getDispatchLatencyP50Nanos() {
+        return dispatchLatencyNanos.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getDispatchLatencyP99Nanos() {
+        return dispatchLatencyNanos.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getWaitTimeP50Millis() {
+        return waitTimeMillis.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getWaitTimeP99Millis() {
+        return waitTimeMillis.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getFloorsTravelled() {
+        long total = 0;
+        for (CarCounters counters: carCounters.values()) {
+            total += counters.floorsTravelled.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getStopsServed() {
+        long total = 0;
+        for (CarCounters counters: carCounters.values()) {
+            total += counters.stopsServed.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getCapacityBlocked() {
+        long total = 0;
+        for (CarCounters counters: carCounters.values()) {
+            total += counters.capacityBlocked.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getPendingStops() {
+        long total = 0;
+        for (CarCounters counters: carCounters.values()) {
+            total += counters.elevator.getSnapshot().getStoppingFloors().size();
+        }
+        return total;
+    }
+
+    @Override
+    public String getPrometheusText() {
+        StringBuilder builder = new StringBuilder(4096);
+        appendSummary(builder, "elevator_dispatch_latency_nanos", dispatchLatencyNanos);
+        appendSummary(builder, "elevator_wait_time_millis", waitTimeMillis);
+
+        builder.append("# TYPE elevator_pending_stops gauge\n");
+        builder.append("elevator_pending_stops ").append(getPendingStops()).append('\n');
+        for (Map.Entry<String, LongSupplier> gauge: gauges.entrySet()) {
+            builder.append("# TYPE ").append(gauge.getKey()).append(" gauge\n");
+            builder.append(gauge.getKey()).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+
+        long now = System.currentTimeMillis();
+        builder.append("# TYPE elevator_floors_travelled_total counter\n");
+        for (CarCounters counters: carCounters.values()) {
+            appendCarSample(builder, "elevator_floors_travelled_total", counters, counters.floorsTravelled.sum());
+        }
+        builder.append("# TYPE elevator_stops_served_total counter\n");
+        for (CarCounters counters: carCounters.values()) {
+            appendCarSample(builder, "elevator_stops_served_total", counters, counters.stopsServed.sum());
+        }
+        builder.append("# TYPE elevator_capacity_blocked_total counter\n");
+        for (CarCounters counters: carCounters.values()) {
+            appendCarSample(builder, "elevator_capacity_blocked_total", counters, counters.capacityBlocked.sum());
+        }
+        builder.append("# TYPE elevator_idle_millis_total counter\n");
+        for (CarCounters counters: carCounters.values()) {
+            appendCarSample(builder, "elevator_idle_millis_total", counters, counters.getIdleMillis(now));
+        }
+        return builder.toString();
+    }
+
+    private static void appendSummary(final StringBuilder builder, final String name,
+                                      final LatencyHistogram histogram) {
+        builder.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile: new double[] {0.5, 0.9, 0.99, 0.999}) {
+            builder.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtPercentile(quantile * 100)).append('\n');
+        }
+        builder.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        builder.append(name).append("_sum ").append((long) (histogram.getMean() * histogram.getCount())).append('\n');
+    }
+
+    private static void appendCarSample(final StringBuilder builder, final String name, final CarCounters counters,
+                                        final long value) {
+        builder.append(name).append("{elevator=\"").append(counters.elevator.getElevatorNumber()).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    private static class CarCounters {
+        private final Elevator elevator;
+        private final int offset;
+        private final AtomicLongArray callTimes;
+        private final LongAdder floorsTravelled;
+        private final LongAdder stopsServed;
+        private final LongAdder capacityBlocked;
+        private final LongAdder idleMillis;
+        private volatile long idleSince;
+
+        private CarCounters(final Elevator elevator) {
+            this.elevator = elevator;
+            this.offset = elevator.getMinFloor().getFloorNumber();
+            this.callTimes = new AtomicLongArray(elevator.getMaxFloor().getFloorNumber() - offset + 1);
+            this.floorsTravelled = new LongAdder();
+            this.stopsServed = new LongAdder();
+            this.capacityBlocked = new LongAdder();
+            this.idleMillis = new LongAdder();
+            this.idleSince = System.currentTimeMillis();
+        }
+
+        private void callWaitingSince(final int floorNumber, final long millis) {
+            int slot = floorNumber - offset;
+            if (slot >= 0 && slot < callTimes.length()) {
+                callTimes.compareAndSet(slot, 0, millis);
+            }
+        }
+
+        private long callAnswered(final int floorNumber) {
+            int slot = floorNumber - offset;
+            if (slot < 0 || slot >= callTimes.length()) {
+                return 0;
+            }
+            return callTimes.getAndSet(slot, 0);
+        }
+
+        // Only the car's mover thread flips it between idle and busy
+        private void idle(final long now) {
+            if (idleSince == 0) {
+                idleSince = now;
+            }
+        }
+
+        private void busy(final long now) {
+            long since = idleSince;
+            if (since != 0) {
+                idleMillis.add(now - since);
+                idleSince = 0;
+            }
+        }
+
+        private long getIdleMillis(final long now) {
+            long since = idleSince;
+            return idleMillis.sum() + (since == 0 ? 0 : now - since);
+        }
+    }
+}
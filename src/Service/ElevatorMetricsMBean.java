@@ -0,0 +1,23 @@
+package Service;
+
+public interface ElevatorMetricsMBean {
+    long getHallCallsDispatched();
+
+    long getDispatchLatencyP50Nanos();
+
+    long getDispatchLatencyP99Nanos();
+
+    long getWaitTimeP50Millis();
+
+    long getWaitTimeP99Millis();
+
+    long getFloorsTravelled();
+
+    long getStopsServed();
+
+    long getCapacityBlocked();
+
+    long getPendingStops();
+
+    String getPrometheusText();
+}
@@ -3,20 +3,52 @@ package Service;
 import Model.Condition;
 import Model.Direction;
 import Model.Elevator;
+import Model.ElevatorListener;
+import Model.ElevatorPosition;
+import Model.EventType;
 import Model.Floor;
+import Model.HallCall;
+import Model.StopSet;
+import Model.Zone;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ElevatorService {
-    private static final ElevatorService instance = new ElevatorService();
+    private static final ElevatorService instance = new ElevatorService(FloorService.getInstance(),
+            ElevatorMetrics.getInstance());
 
     private final Map<Integer, Elevator> elevatorMap;
+    private final ElevatorIndex elevatorIndex;
+    private final List<ElevatorListener> elevatorListeners;
+    private final ZoneRouter zoneRouter;
 
-    private ElevatorService() {
+    private final FloorService floorService;
+    private volatile StopSchedulingStrategy stopSchedulingStrategy;
+    private volatile TraceRecorder traceRecorder;
+    private final EventJournal eventJournal;
+    private final ElevatorMetrics elevatorMetrics;
+
+    public ElevatorService(final FloorService floorService, final ElevatorMetrics elevatorMetrics,
+                           final EventJournal eventJournal) {
         this.elevatorMap = new ConcurrentHashMap<>();
+        this.elevatorIndex = new ElevatorIndex(Double.parseDouble(System.getProperty("elevator.fullLoadFraction",
+                "0.8")));
+        this.elevatorListeners = new CopyOnWriteArrayList<>();
+        this.zoneRouter = new ZoneRouter();
+        this.floorService = floorService;
+        this.stopSchedulingStrategy = new LookScheduling();
+        this.eventJournal = eventJournal;
+        this.elevatorMetrics = elevatorMetrics;
+    }
+
+    public ElevatorService(final FloorService floorService, final ElevatorMetrics elevatorMetrics) {
+        this(floorService, elevatorMetrics, EventJournal.getInstance());
     }
 
     public static ElevatorService getInstance() {
@@ -25,71 +57,227 @@ public class ElevatorService {
 
     public void addElevator(final int elevatorNumber, final int maxCapacity, final Floor floorAt,
                             final Floor minFloor, final Floor maxFloor) {
+        addElevator(new Elevator(elevatorNumber, maxCapacity, floorAt, minFloor, maxFloor));
+    }
+
+    // The car joins the zone's bank and spans the zone's lowest to highest served floor
+    public void addElevator(final int elevatorNumber, final int maxCapacity, final Floor floorAt, final Zone zone) {
+        Floor minFloor = floorService.getFloor(zone.getMinFloor());
+        Floor maxFloor = floorService.getFloor(zone.getMaxFloor());
+        if (minFloor == null || maxFloor == null) {
+            eventJournal.record(EventType.INVALID_FLOOR, elevatorNumber,
+                    minFloor == null ? zone.getMinFloor() : zone.getMaxFloor());
+            return;
+        }
+        if (!zone.serves(floorAt.getFloorNumber())) {
+            eventJournal.record(EventType.FLOOR_NOT_SERVED, elevatorNumber, floorAt.getFloorNumber());
+            return;
+        }
+
+        zoneRouter.addZone(zone);
+        addElevator(new Elevator(elevatorNumber, maxCapacity, floorAt, minFloor, maxFloor, zone));
+    }
 
+    private synchronized void addElevator(final Elevator elevator) {
+        int elevatorNumber = elevator.getElevatorNumber();
+        Floor floorAt = elevator.getFloorAt();
         if (elevatorMap.containsKey(elevatorNumber)) {
-            System.out.println("Elevator with same number is already existed");
+            eventJournal.record(EventType.DUPLICATE_ELEVATOR, elevatorNumber, floorAt.getFloorNumber());
             return;
         }
 
-        Elevator elevator = new Elevator(elevatorNumber, maxCapacity, floorAt, minFloor, maxFloor);
+        // Indexed first, so a car the index cannot take never appears in the fleet unindexed
+        elevator.addListener(elevatorIndex);
         elevatorMap.put(elevatorNumber, elevator);
-        System.out.println("Elevator with number " + elevatorNumber + " is added");
+        for (ElevatorListener listener: elevatorListeners) {
+            elevator.addListener(listener);
+        }
+        elevatorMetrics.registerElevator(elevator);
+        eventJournal.record(EventType.ELEVATOR_ADDED, elevatorNumber, floorAt.getFloorNumber());
     }
 
-    public void changeElevatorCondition(final int elevatorNumber, final Condition condition) {
+    // Listens to every car already in service and to every car added later
+    public synchronized void addElevatorListener(final ElevatorListener listener) {
+        elevatorListeners.add(listener);
+        for (Elevator elevator: elevatorMap.values()) {
+            elevator.addListener(listener);
+        }
+    }
+
+    public synchronized void removeElevatorListener(final ElevatorListener listener) {
+        elevatorListeners.remove(listener);
+        for (Elevator elevator: elevatorMap.values()) {
+            elevator.removeListener(listener);
+        }
+    }
+
+    // Returns the calls a car taken out of service can no longer answer, for dispatch to hand to other cars
+    public List<HallCall> changeElevatorCondition(final int elevatorNumber, final Condition condition) {
         if (!elevatorMap.containsKey(elevatorNumber)) {
-            System.out.println("Elevator with the number " + elevatorNumber + " is not present");
-            return;
+            eventJournal.record(EventType.ELEVATOR_NOT_PRESENT, elevatorNumber, -1);
+            return Collections.emptyList();
+        }
+
+        Elevator elevator = elevatorMap.get(elevatorNumber);
+        if (condition == Condition.WORKING) {
+            elevator.changeCondition(condition);
+            return Collections.emptyList();
         }
 
-        elevatorMap.get(elevatorNumber).changeCondition(condition);
+        eventJournal.record(EventType.OUT_OF_SERVICE, elevatorNumber, elevator.getFloorAt().getFloorNumber());
+        return elevator.removeFromService();
     }
 
     public void moveToNextFloor(final Elevator elevator) {
         if (!elevatorMap.containsKey(elevator.getElevatorNumber())) {
-            System.out.println("Invalid elevator Number: " + elevator.getElevatorNumber());
+            eventJournal.record(EventType.INVALID_ELEVATOR, elevator.getElevatorNumber(), -1);
             return;
         }
 
-        if (elevator.getCurrentLoad()>elevator.getMaxCapacity()) {
-            System.out.println("Max Capacity");
+        // The mover is the car's single writer for changes other threads post
+        elevator.applyCommands();
+
+        if (elevator.getElevatorCondition() != Condition.WORKING) {
+            eventJournal.record(EventType.OUT_OF_SERVICE, elevator.getElevatorNumber(),
+                    elevator.getFloorAt().getFloorNumber());
             return;
         }
 
-        if (elevator.getStoppingFloors().isEmpty()) {
-            elevator.setDirection(Direction.STOP);
-        } else {
-            Floor nextFloor = elevator.getNextFloor();
-            elevator.setFloorAt(nextFloor);
+        if (elevator.getCurrentLoad()>elevator.getMaxCapacity()) {
+            eventJournal.record(EventType.CAPACITY_BLOCKED, elevator.getElevatorNumber(),
+                    elevator.getFloorAt().getFloorNumber());
+            elevatorMetrics.recordCapacityBlocked(elevator.getElevatorNumber());
+            return;
         }
+
+        moveToNextStop(elevator, stopSchedulingStrategy);
     }
 
-    public void stopElevator(final int elevatorNumber) {
-        if (!elevatorMap.containsKey(elevatorNumber)) {
-            System.out.println("Invalid elevator Number: " + elevatorNumber);
-            return;
+    private void moveToNextStop(final Elevator elevator, final StopSchedulingStrategy strategy) {
+        synchronized (elevator) {
+            if (!elevator.hasStoppingFloors()) {
+                elevator.setDirection(Direction.STOP);
+                eventJournal.record(EventType.STOPPED, elevator.getElevatorNumber(),
+                        elevator.getFloorAt().getFloorNumber());
+                elevatorMetrics.recordIdle(elevator.getElevatorNumber());
+            } else {
+                int fromFloor = elevator.getFloorAt().getFloorNumber();
+                int nextFloor = strategy.selectNextStop(elevator.getFloorAt().getFloorNumber(), elevator.getDirection(),
+                        elevator.getStoppingFloors(), elevator.getMinFloor().getFloorNumber(),
+                        elevator.getMaxFloor().getFloorNumber());
+                // A strategy may run past the last stop to the end of the range before reversing; that is no stop
+                if (elevator.getStoppingFloors().contains(nextFloor)) {
+                    elevator.moveTo(floorService.getFloor(nextFloor));
+                    elevatorMetrics.recordArrival(elevator.getElevatorNumber(), fromFloor, nextFloor);
+                } else {
+                    elevator.passTo(floorService.getFloor(nextFloor));
+                    elevatorMetrics.recordTravel(elevator.getElevatorNumber(), fromFloor, nextFloor);
+                }
+                eventJournal.record(EventType.MOVED, elevator.getElevatorNumber(), nextFloor);
+            }
         }
+    }
 
-        for (Floor floor: elevatorMap.get(elevatorNumber).getStoppingFloors()) {
-            System.out.println("Stopping at floor: " + floor.getFloorNumber());
+    // Cars loaded to this fraction of their capacity stop being offered hall calls by the index
+    public void setFullLoadFraction(final double fullLoadFraction) {
+        elevatorIndex.setFullLoadFraction(fullLoadFraction);
+        for (Elevator elevator: elevatorMap.values()) {
+            synchronized (elevator) {
+                elevatorIndex.update(elevator);
+            }
         }
+    }
 
-        Elevator elevator = elevatorMap.get(elevatorNumber);
-        elevator.setDirection(Direction.STOP);
-        elevator.getStoppingFloors().clear();
+    public double getFullLoadFraction() {
+        return elevatorIndex.getFullLoadFraction();
+    }
+
+    public void setStopSchedulingStrategy(final StopSchedulingStrategy stopSchedulingStrategy) {
+        this.stopSchedulingStrategy = stopSchedulingStrategy;
+    }
+
+    public StopSchedulingStrategy getStopSchedulingStrategy() {
+        return stopSchedulingStrategy;
+    }
 
+    void setTraceRecorder(final TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
     }
 
-    public void requestStop(final int elevatorNumber, final Floor floor) {
+    public void stopElevator(final int elevatorNumber) {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordElevatorStopped(elevatorNumber);
+        }
         if (!elevatorMap.containsKey(elevatorNumber)) {
-            System.out.println("Invalid elevator Number: " + elevatorNumber);
+            eventJournal.record(EventType.INVALID_ELEVATOR, elevatorNumber, -1);
             return;
         }
 
-        elevatorMap.get(elevatorNumber).addStoppingFloor(floor);
+        // Applied by the car's mover, so no move can slip in between dropping the stops and halting
+        elevatorMap.get(elevatorNumber).post(car -> {
+            car.getStoppingFloors().forEach(floor -> eventJournal.record(EventType.STOPPING_AT, elevatorNumber, floor));
+            car.setDirection(Direction.STOP);
+            car.clearStoppingFloors();
+        });
+    }
+
+    // False when there is no such car or it does not stop at the floor
+    public boolean requestStop(final int elevatorNumber, final Floor floor) {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordStop(elevatorNumber, floor.getFloorNumber());
+        }
+        if (!elevatorMap.containsKey(elevatorNumber)) {
+            eventJournal.record(EventType.INVALID_ELEVATOR, elevatorNumber, floor.getFloorNumber());
+            return false;
+        }
+
+        Elevator elevator = elevatorMap.get(elevatorNumber);
+        if (!elevator.serves(floor.getFloorNumber())) {
+            eventJournal.record(EventType.FLOOR_NOT_SERVED, elevatorNumber, floor.getFloorNumber());
+            return false;
+        }
+        // Takes effect when the car's mover next runs, so a caller never contends with the car's writer
+        elevator.post(car -> car.addStoppingFloor(floor));
+        return true;
+    }
+
+    public Elevator getElevator(final int elevatorNumber) {
+        return elevatorMap.get(elevatorNumber);
     }
 
     public List<Elevator> getAllElevator() {
         return new ArrayList<>(elevatorMap.values());
     }
+
+    public ElevatorPosition findNearestElevator(final Direction direction, final int startingFloor) {
+        return elevatorIndex.findNearest(direction, startingFloor);
+    }
+
+    public ElevatorPosition findNearestElevator(final HallCall hallCall) {
+        return elevatorIndex.findNearest(hallCall.getDirection(), hallCall.getStartingFloor(),
+                hallCall.getDestinationFloor());
+    }
+
+    // Cars of the banks that stop at the call's floors and can take riders now; a strategy re-checks each car under
+    // its monitor
+    public List<Elevator> getCandidates(final HallCall hallCall) {
+        List<Elevator> candidates = new ArrayList<>();
+        elevatorIndex.collectCandidates(hallCall.getStartingFloor(),
+                hallCall.hasDestination() ? hallCall.getDestinationFloor() : StopSet.NONE, candidates);
+        return candidates;
+    }
+
+    public EventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    public ZoneRouter getZoneRouter() {
+        return zoneRouter;
+    }
+
+    public Collection<Elevator> getElevators() {
+        return Collections.unmodifiableCollection(elevatorMap.values());
+    }
 }
@@ -0,0 +1,67 @@
+package Service;
+
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorPosition;
+import Model.ElevatorSnapshot;
+import Model.EtaTable;
+import Model.HallCall;
+
+public class EtaDispatchStrategy implements DispatchStrategy {
+    private final double secondsPerFloor;
+    private final double dwellSeconds;
+    private final double fullCarSeconds;
+
+    public EtaDispatchStrategy(final double secondsPerFloor, final double dwellSeconds, final double fullCarSeconds) {
+        this.secondsPerFloor = secondsPerFloor;
+        this.dwellSeconds = dwellSeconds;
+        this.fullCarSeconds = fullCarSeconds;
+    }
+
+    public EtaDispatchStrategy(final double secondsPerFloor, final double dwellSeconds) {
+        this(secondsPerFloor, dwellSeconds, dwellSeconds);
+    }
+
+    public EtaDispatchStrategy() {
+        this(1.5, 8);
+    }
+
+    @Override
+    public ElevatorPosition selectElevator(final ElevatorService elevatorService, final HallCall hallCall) {
+        ElevatorPosition best = null;
+        double bestCost = Double.MAX_VALUE;
+
+        // Ranked on snapshots, so dispatch never waits on a moving car; the assignment is checked against the version
+        for (Elevator elevator: elevatorService.getCandidates(hallCall)) {
+            ElevatorPosition position = new ElevatorPosition(elevator);
+            if (position.getLoadFactor() >= elevatorService.getFullLoadFraction() ||
+                    !position.canServe(hallCall.getStartingFloor()) ||
+                    (hallCall.hasDestination() && !position.canServe(hallCall.getDestinationFloor()))) {
+                continue;
+            }
+
+            double cost = getCost(position.getSnapshot(), hallCall);
+            if (cost < bestCost) {
+                best = position;
+                bestCost = cost;
+            }
+        }
+
+        return best;
+    }
+
+    // A fuller car is likelier to arrive with no room, so its load costs up to fullCarSeconds on top of the arrival
+    // estimate
+    protected double getCost(final ElevatorSnapshot car, final HallCall hallCall) {
+        return estimateArrivalSeconds(car, hallCall.getStartingFloor(), hallCall.getDirection())
+                + fullCarSeconds * car.getCurrentLoad() / Math.max(car.getMaxCapacity(), 1);
+    }
+
+    // Follows the car's LOOK sweep until it passes the floor heading the caller's way. The car keeps the distances
+    // for its current route, so this is a lookup; lobby displays can call it for "arriving in N s"
+    public double estimateArrivalSeconds(final ElevatorSnapshot car, final int floor, final Direction callDirection) {
+        EtaTable etaTable = car.getEtaTable();
+        return etaTable.getDistance(floor, callDirection) * secondsPerFloor
+                + etaTable.getStopsOnTheWay(floor, callDirection) * dwellSeconds;
+    }
+}
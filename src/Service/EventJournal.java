@@ -0,0 +1,181 @@
+package Service;
+
+import Model.EventType;
+import Model.LogLevel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class EventJournal {
+    // Every open journal is written by one shared writer, which parks while all of them are empty, so an idle
+    // building costs neither a thread nor wake-ups
+    private static final List<EventJournal> journals = new CopyOnWriteArrayList<>();
+    private static final Thread writer = startWriter();
+    // Set by the writer just before it parks; producers only unpark it then
+    private static volatile boolean writerParked;
+    // Events one journal writes before the writer moves on, so a busy building cannot hold up the others
+    private static final int DRAIN_BATCH = 256;
+    private static final EventJournal instance = new EventJournal("");
+
+    // Preallocated slots; a producer claims a sequence, fills the slot and then publishes the sequence into it
+    private final int mask;
+    private final EventType[] types;
+    private final int[] elevators;
+    private final int[] floors;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private final AtomicLong dropped;
+    private volatile long consumed;
+    private volatile LogLevel level;
+    // Put in front of every line, so the journals of several buildings can share one output
+    private final String prefix;
+    // The next sequence to write; only the writer touches it
+    private long next;
+
+    // A building's own journal; its lines start with the building's name
+    public static EventJournal forBuilding(final String buildingName) {
+        return new EventJournal("[" + buildingName + "] ");
+    }
+
+    private EventJournal(final String prefix) {
+        this(Integer.getInteger("elevator.journalCapacity", 1 << 16),
+                LogLevel.valueOf(System.getProperty("elevator.logLevel", "INFO").toUpperCase()), prefix);
+    }
+
+    private EventJournal(final int capacity, final LogLevel level, final String prefix) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.types = new EventType[size];
+        this.elevators = new int[size];
+        this.floors = new int[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.claimed = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.level = level;
+        this.prefix = prefix;
+        journals.add(this);
+    }
+
+    private static Thread startWriter() {
+        Thread thread = new Thread(EventJournal::writeAll, "event-journal-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> journals.forEach(EventJournal::flush)));
+        return thread;
+    }
+
+    public static EventJournal getInstance() {
+        return instance;
+    }
+
+    public void setLevel(final LogLevel level) {
+        this.level = level;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public boolean isEnabled(final EventType type) {
+        return type.getLevel().compareTo(level) >= 0;
+    }
+
+    public void record(final EventType type, final int elevatorNumber, final int floorNumber) {
+        if (!isEnabled(type)) {
+            return;
+        }
+
+        // A full ring drops the event rather than stalling the elevator thread that raised it
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        types[slot] = type;
+        elevators[slot] = elevatorNumber;
+        floors[slot] = floorNumber;
+        published.set(slot, sequence);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    // Waits briefly until everything recorded so far has been written
+    public void flush() {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        LockSupport.unpark(writer);
+        while (consumed < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    // Writes what was recorded so far and drops the journal from the writer; later events are never written
+    public void close() {
+        flush();
+        journals.remove(this);
+    }
+
+    private static void writeAll() {
+        StringBuilder builder = new StringBuilder(128);
+        while (true) {
+            boolean wrote = false;
+            for (EventJournal journal: journals) {
+                wrote |= journal.drain(builder);
+            }
+            if (wrote) {
+                continue;
+            }
+
+            // Checked again after raising the flag, so an event published just before it is not left waiting
+            writerParked = true;
+            if (!hasPending()) {
+                LockSupport.park();
+            }
+            writerParked = false;
+        }
+    }
+
+    private static boolean hasPending() {
+        for (EventJournal journal: journals) {
+            if (journal.published.get((int) (journal.next & journal.mask)) == journal.next) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean drain(final StringBuilder builder) {
+        int written = 0;
+        while (written < DRAIN_BATCH) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break;
+            }
+
+            builder.setLength(0);
+            builder.append(prefix);
+            types[slot].format(builder, elevators[slot], floors[slot]);
+            System.out.println(builder);
+            consumed = ++next;
+            written++;
+        }
+        return written > 0;
+    }
+}
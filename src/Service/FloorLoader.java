@@ -0,0 +1,67 @@
+package Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Defines a building's floors from ranges such as "-3..-1, 1..220": basements are negative, and a floor left out of
+// every range (a missing 0 or 13) simply does not exist
+public class FloorLoader {
+    private FloorLoader() {
+    }
+
+    // Returns the number of floors defined, or -1 without adding any when the spec is malformed
+    public static int load(final FloorService floorService, final String spec) {
+        List<int[]> ranges = parse(spec);
+        if (ranges == null) {
+            return -1;
+        }
+
+        int count = 0;
+        for (int[] range: ranges) {
+            floorService.addFloors(range[0], range[1]);
+            count += range[1] - range[0] + 1;
+        }
+        return count;
+    }
+
+    // One spec per line; blank lines and lines starting with # are skipped
+    public static int load(final FloorService floorService, final Path file) throws IOException {
+        StringBuilder spec = new StringBuilder();
+        for (String line: Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(trimmed);
+        }
+        return load(floorService, spec.toString());
+    }
+
+    private static List<int[]> parse(final String spec) {
+        List<int[]> ranges = new ArrayList<>();
+        for (String part: spec.split(",")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+            try {
+                int separator = range.indexOf("..");
+                int lowest = Integer.parseInt(separator < 0 ? range : range.substring(0, separator).trim());
+                int highest = separator < 0 ? lowest : Integer.parseInt(range.substring(separator + 2).trim());
+                if (highest < lowest) {
+                    return null;
+                }
+                ranges.add(new int[] {lowest, highest});
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return ranges.isEmpty() ? null : ranges;
+    }
+}
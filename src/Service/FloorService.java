@@ -1,37 +1,112 @@
 package Service;
 
+import Model.EventType;
 import Model.Floor;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class FloorService {
     private static final FloorService instance = new FloorService();
 
-    private final Map<Integer, Floor> floorMap;
+    // Dense table indexed by floor number minus the lowest floor, so basements need no special casing. Floors are
+    // added at startup and rarely after, so the table is replaced rather than mutated and readers never lock
+    private volatile FloorTable floorTable;
+    private final EventJournal eventJournal;
 
-    private FloorService() {
-        this.floorMap = new ConcurrentHashMap<>();
+    public FloorService(final EventJournal eventJournal) {
+        this.floorTable = new FloorTable(0, new Floor[0]);
+        this.eventJournal = eventJournal;
+    }
+
+    public FloorService() {
+        this(EventJournal.getInstance());
     }
 
     public static FloorService getInstance() {
         return instance;
     }
 
-    public void addFloor(final int floorNumber) {
-        if (floorMap.containsKey(floorNumber)) {
-            System.out.println("Floor with floor number is already existed: " + floorNumber);
+    public synchronized void addFloor(final int floorNumber) {
+        FloorTable table = floorTable;
+        if (table.get(floorNumber) != null) {
+            eventJournal.record(EventType.DUPLICATE_FLOOR, -1, floorNumber);
             return;
         }
 
-        floorMap.put(floorNumber, new Floor(floorNumber));
+        int lowest = table.floors.length == 0 ? floorNumber : Math.min(table.lowest, floorNumber);
+        int highest = table.floors.length == 0 ? floorNumber : Math.max(table.highest(), floorNumber);
+        Floor[] floors = new Floor[highest - lowest + 1];
+        copyInto(table, floors, lowest);
+        floors[floorNumber - lowest] = Floor.of(floorNumber);
+        floorTable = new FloorTable(lowest, floors);
+    }
+
+    // Adds every floor from lowest to highest in one table rebuild
+    public synchronized void addFloors(final int lowest, final int highest) {
+        FloorTable table = floorTable;
+        int newLowest = table.floors.length == 0 ? lowest : Math.min(table.lowest, lowest);
+        int newHighest = table.floors.length == 0 ? highest : Math.max(table.highest(), highest);
+        Floor[] floors = new Floor[newHighest - newLowest + 1];
+        copyInto(table, floors, newLowest);
+        for (int floorNumber = lowest; floorNumber <= highest; floorNumber++) {
+            if (floors[floorNumber - newLowest] != null) {
+                eventJournal.record(EventType.DUPLICATE_FLOOR, -1, floorNumber);
+                continue;
+            }
+            floors[floorNumber - newLowest] = Floor.of(floorNumber);
+        }
+        floorTable = new FloorTable(newLowest, floors);
+    }
+
+    // The empty table's base of 0 means nothing, so a first floor above 0 must not be copied against it
+    private static void copyInto(final FloorTable table, final Floor[] floors, final int lowest) {
+        if (table.floors.length > 0) {
+            System.arraycopy(table.floors, 0, floors, table.lowest - lowest, table.floors.length);
+        }
     }
 
     public Floor getFloor(final int floor) {
-        return floorMap.get(floor);
+        return floorTable.get(floor);
     }
 
     public boolean checkFloorNumber(final int floorNumber) {
-        return floorMap.containsKey(floorNumber);
+        return floorTable.get(floorNumber) != null;
+    }
+
+    // Lowest and highest floor present; both are meaningless while the building has no floors
+    public int getLowestFloor() {
+        return floorTable.lowest;
+    }
+
+    public int getHighestFloor() {
+        return floorTable.highest();
+    }
+
+    public int getFloorCount() {
+        int count = 0;
+        for (Floor floor: floorTable.floors) {
+            if (floor != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class FloorTable {
+        private final int lowest;
+        private final Floor[] floors;
+
+        private FloorTable(final int lowest, final Floor[] floors) {
+            this.lowest = lowest;
+            this.floors = floors;
+        }
+
+        private int highest() {
+            return lowest + floors.length - 1;
+        }
+
+        private Floor get(final int floorNumber) {
+            int index = floorNumber - lowest;
+            return index >= 0 && index < floors.length ? floors[index] : null;
+        }
     }
 }
@@ -0,0 +1,131 @@
+package Service;
+
+import Model.Direction;
+import Model.EventType;
+import Model.HallCall;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class HallCallBatcher {
+    private final ElevatorManagementService elevatorManagementService;
+    private final BlockingQueue<PendingCall> pendingCalls;
+    private final ScheduledExecutorService scheduler;
+    private final long dispatchPeriodMillis;
+    private ScheduledFuture<?> dispatchTask;
+
+    public HallCallBatcher(final ElevatorManagementService elevatorManagementService, final int capacity,
+                           final long dispatchPeriodMillis) {
+        this.elevatorManagementService = elevatorManagementService;
+        this.pendingCalls = new ArrayBlockingQueue<>(capacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hall-call-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatchPeriodMillis = dispatchPeriodMillis;
+    }
+
+    public synchronized void start() {
+        if (dispatchTask != null) {
+            return;
+        }
+        dispatchTask = scheduler.scheduleWithFixedDelay(this::dispatchBatch, dispatchPeriodMillis,
+                dispatchPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (dispatchTask != null) {
+            dispatchTask.cancel(false);
+            dispatchTask = null;
+        }
+    }
+
+    public CompletableFuture<Integer> submit(final Direction direction, final int startingFloor) {
+        return submit(new HallCall(direction, startingFloor));
+    }
+
+    public CompletableFuture<Integer> submit(final int startingFloor, final int destinationFloor) {
+        return submit(new HallCall(startingFloor, destinationFloor));
+    }
+
+    public CompletableFuture<Integer> submit(final HallCall hallCall) {
+        PendingCall pendingCall = new PendingCall(hallCall);
+        if (!pendingCalls.offer(pendingCall)) {
+            elevatorManagementService.getEventJournal().record(EventType.HALL_CALL_REJECTED, -1,
+                    hallCall.getStartingFloor());
+            pendingCall.assignedElevator.complete(-1);
+        }
+        return pendingCall.assignedElevator;
+    }
+
+    public int getQueueDepth() {
+        return pendingCalls.size();
+    }
+
+    public void dispatchBatch() {
+        List<PendingCall> batch = new ArrayList<>();
+        pendingCalls.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Presses of the same button in one cycle are a single call
+        Map<String, List<PendingCall>> coalesced = new LinkedHashMap<>();
+        for (PendingCall pendingCall: batch) {
+            coalesced.computeIfAbsent(key(pendingCall.hallCall), key -> new ArrayList<>()).add(pendingCall);
+        }
+
+        // Assigning calls in sweep order lets each car pick up consecutive floors of one direction in this pass
+        List<List<PendingCall>> groups = new ArrayList<>(coalesced.values());
+        groups.sort(Comparator.comparingInt(group -> sweepOrder(group.get(0).hallCall)));
+
+        for (List<PendingCall> group: groups) {
+            // A failing strategy fails only this call's futures; the rest of the batch and later cycles still run
+            try {
+                int assigned = elevatorManagementService.requestElevator(group.get(0).hallCall);
+                for (PendingCall pendingCall: group) {
+                    pendingCall.assignedElevator.complete(assigned);
+                }
+            } catch (RuntimeException e) {
+                elevatorManagementService.getEventJournal().record(EventType.DISPATCH_FAILED, -1,
+                        group.get(0).hallCall.getStartingFloor());
+                for (PendingCall pendingCall: group) {
+                    pendingCall.assignedElevator.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static String key(final HallCall hallCall) {
+        return hallCall.getDirection() + ":" + hallCall.getStartingFloor() + ":" + hallCall.getDestinationFloor();
+    }
+
+    static int sweepOrder(final HallCall hallCall) {
+        if (hallCall.getDirection() == Direction.UP) {
+            return hallCall.getStartingFloor();
+        }
+        // Down calls after all up calls, highest floor first
+        return Integer.MAX_VALUE / 2 - hallCall.getStartingFloor();
+    }
+
+    private static class PendingCall {
+        private final HallCall hallCall;
+        private final CompletableFuture<Integer> assignedElevator;
+
+        private PendingCall(final HallCall hallCall) {
+            this.hallCall = hallCall;
+            this.assignedElevator = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package Service;
+
+import Model.Direction;
+import Model.StopSet;
+
+public class LookScheduling implements StopSchedulingStrategy {
+    @Override
+    public int selectNextStop(final int floorAt, final Direction direction, final StopSet stoppingFloors,
+                              final int minFloor, final int maxFloor) {
+        if (direction == Direction.DOWN) {
+            int below = stoppingFloors.nextAtOrBelow(floorAt);
+            return below != StopSet.NONE ? below : stoppingFloors.nextAtOrAbove(floorAt);
+        }
+
+        int above = stoppingFloors.nextAtOrAbove(floorAt);
+        return above != StopSet.NONE ? above : stoppingFloors.nextAtOrBelow(floorAt);
+    }
+}
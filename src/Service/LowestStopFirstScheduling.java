@@ -0,0 +1,12 @@
+package Service;
+
+import Model.Direction;
+import Model.StopSet;
+
+public class LowestStopFirstScheduling implements StopSchedulingStrategy {
+    @Override
+    public int selectNextStop(final int floorAt, final Direction direction, final StopSet stoppingFloors,
+                              final int minFloor, final int maxFloor) {
+        return stoppingFloors.lowest();
+    }
+}
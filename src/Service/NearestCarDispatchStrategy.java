@@ -0,0 +1,11 @@
+package Service;
+
+import Model.ElevatorPosition;
+import Model.HallCall;
+
+public class NearestCarDispatchStrategy implements DispatchStrategy {
+    @Override
+    public ElevatorPosition selectElevator(final ElevatorService elevatorService, final HallCall hallCall) {
+        return elevatorService.findNearestElevator(hallCall);
+    }
+}
@@ -0,0 +1,242 @@
+package Service;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorSnapshot;
+import Model.EventType;
+import Model.Floor;
+import Model.HallCall;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+// Learns how often each floor calls in each direction per quarter hour of the day, and sends idle cars to the floors
+// expected to call next. Recording a call is one atomic increment, so dispatch threads never wait on each other here;
+// earlier days are folded into a decayed history the first time a quarter hour is used on a new day
+public class ParkingPlanner {
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int BUCKETS = (int) (DAY_MILLIS / BUCKET_MILLIS);
+    // Each day's calls count for this much less the next day, so the pattern follows changes in the building
+    private static final double DAILY_DECAY = 0.7;
+    private static final double MIN_DEMAND = 1;
+
+    private final ElevatorService elevatorService;
+    private final FloorService floorService;
+    private final LongSupplier clock;
+    private final int minFloor;
+    private final int floorCount;
+    // Calls counted on the bucket's current day, at (bucket * 2 + direction) * floorCount + floor
+    private final AtomicLongArray calls;
+    // Per bucket, the decayed calls of the days before its current day, indexed by direction * floorCount + floor
+    private final AtomicReferenceArray<double[]> history;
+    private final AtomicLongArray bucketDay;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> parkingTask;
+
+    // The clock returns local wall time in milliseconds; its value modulo a day is the time of day
+    public ParkingPlanner(final ElevatorService elevatorService, final FloorService floorService,
+                          final int minFloor, final int maxFloor, final LongSupplier clock) {
+        this.elevatorService = elevatorService;
+        this.floorService = floorService;
+        this.clock = clock;
+        this.minFloor = minFloor;
+        this.floorCount = maxFloor - minFloor + 1;
+        this.calls = new AtomicLongArray(BUCKETS * 2 * floorCount);
+        this.history = new AtomicReferenceArray<>(BUCKETS);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            history.set(bucket, new double[2 * floorCount]);
+        }
+        this.bucketDay = new AtomicLongArray(BUCKETS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parking-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ParkingPlanner(final ElevatorService elevatorService, final FloorService floorService,
+                          final int minFloor, final int maxFloor) {
+        this(elevatorService, floorService, minFloor, maxFloor, () -> {
+            long now = System.currentTimeMillis();
+            return now + TimeZone.getDefault().getOffset(now);
+        });
+    }
+
+    public synchronized void start(final long periodMillis) {
+        if (parkingTask != null) {
+            return;
+        }
+        parkingTask = scheduler.scheduleWithFixedDelay(this::park, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (parkingTask != null) {
+            parkingTask.cancel(false);
+            parkingTask = null;
+        }
+    }
+
+    public void recordHallCall(final HallCall hallCall) {
+        int floor = hallCall.getStartingFloor() - minFloor;
+        if (floor < 0 || floor >= floorCount) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        int bucket = bucket(now);
+        long day = Math.floorDiv(now, DAY_MILLIS);
+        if (bucketDay.get(bucket) < day) {
+            startDay(bucket, day);
+        }
+        calls.incrementAndGet((bucket * 2 + direction(hallCall.getDirection())) * floorCount + floor);
+    }
+
+    // Only the caller that moves the bucket to the new day folds it; calls landing during the fold may count as the
+    // previous day's, which the decay barely changes
+    private void startDay(final int bucket, final long day) {
+        long previousDay = bucketDay.get(bucket);
+        if (previousDay >= day || !bucketDay.compareAndSet(bucket, previousDay, day)) {
+            return;
+        }
+        double decay = Math.pow(DAILY_DECAY, day - previousDay);
+        double[] folded = history.get(bucket).clone();
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = (folded[i] + calls.getAndSet(bucket * 2 * floorCount + i, 0)) * decay;
+        }
+        history.set(bucket, folded);
+    }
+
+    public double getDemand(final long timeOfDayMillis, final Direction direction, final int floorNumber) {
+        return demand(bucket(timeOfDayMillis), direction(direction) * floorCount + floorNumber - minFloor,
+                Math.floorDiv(clock.getAsLong(), DAY_MILLIS));
+    }
+
+    // A bucket not yet used on the given day is read decayed as it will be once it is
+    private double demand(final int bucket, final int index, final long day) {
+        long bucketStart = bucketDay.get(bucket);
+        double value = history.get(bucket)[index] + calls.get(bucket * 2 * floorCount + index);
+        return day > bucketStart ? value * Math.pow(DAILY_DECAY, day - bucketStart) : value;
+    }
+
+    // One background pass: places the idle cars where they cut the expected distance to the calls of this quarter
+    // hour and the next the most, and posts each its move. Returns the number of moves posted
+    public int park() {
+        long now = clock.getAsLong();
+        double[] weights = new double[floorCount];
+        double total = addDemand(weights, now) + addDemand(weights, now + BUCKET_MILLIS);
+        if (total < MIN_DEMAND) {
+            return 0;
+        }
+
+        List<Elevator> idle = new ArrayList<>();
+        for (Elevator elevator: elevatorService.getElevators()) {
+            if (isIdle(elevator.getSnapshot())) {
+                idle.add(elevator);
+            }
+        }
+        if (idle.isEmpty()) {
+            return 0;
+        }
+
+        // Greedy placement: each spot is the floor that most reduces demand-weighted distance to the nearest spot
+        int[] distance = new int[weights.length];
+        Arrays.fill(distance, weights.length);
+        List<Integer> spots = new ArrayList<>();
+        while (spots.size() < idle.size()) {
+            int best = -1;
+            double bestGain = 0;
+            for (int candidate = 0; candidate < weights.length; candidate++) {
+                double gain = 0;
+                for (int floor = 0; floor < weights.length; floor++) {
+                    gain += weights[floor] * Math.max(0, distance[floor] - Math.abs(candidate - floor));
+                }
+                if (gain > bestGain) {
+                    best = candidate;
+                    bestGain = gain;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            spots.add(best);
+            for (int floor = 0; floor < weights.length; floor++) {
+                distance[floor] = Math.min(distance[floor], Math.abs(best - floor));
+            }
+        }
+
+        // The most valuable spot takes the closest idle car that stops there
+        int sent = 0;
+        for (int spot: spots) {
+            int spotFloor = spot + minFloor;
+            Floor floor = floorService.getFloor(spotFloor);
+            if (floor == null) {
+                continue;
+            }
+            Elevator nearest = null;
+            for (Elevator elevator: idle) {
+                if (!elevator.serves(spotFloor)) {
+                    continue;
+                }
+                if (nearest == null || Math.abs(elevator.getSnapshot().getFloorAt() - spotFloor)
+                        < Math.abs(nearest.getSnapshot().getFloorAt() - spotFloor)) {
+                    nearest = elevator;
+                }
+            }
+            if (nearest == null) {
+                continue;
+            }
+            idle.remove(nearest);
+
+            if (nearest.getSnapshot().getFloorAt() == spotFloor) {
+                continue;
+            }
+            // The car's mover applies the move, and skips it if the car took a call in the meantime
+            nearest.post(car -> {
+                if (isIdle(car.getSnapshot()) && car.getFloorAt().getFloorNumber() != spotFloor) {
+                    car.assignHallCall(floor);
+                    elevatorService.getEventJournal().record(EventType.PARKING, car.getElevatorNumber(), spotFloor);
+                }
+            });
+            sent++;
+        }
+        return sent;
+    }
+
+    private double addDemand(final double[] weights, final long millis) {
+        int bucket = bucket(millis);
+        long day = Math.floorDiv(millis, DAY_MILLIS);
+        double total = 0;
+        for (int direction = 0; direction < 2; direction++) {
+            for (int floor = 0; floor < floorCount; floor++) {
+                double value = demand(bucket, direction * floorCount + floor, day);
+                weights[floor] += value;
+                total += value;
+            }
+        }
+        return total;
+    }
+
+    private static boolean isIdle(final ElevatorSnapshot car) {
+        return car.getDirection() == Direction.STOP && car.getStoppingFloors().isEmpty()
+                && car.getCurrentLoad() == 0 && car.getCondition() == Condition.WORKING;
+    }
+
+    private static int direction(final Direction direction) {
+        return direction == Direction.UP ? 0 : 1;
+    }
+
+    private static int bucket(final long millis) {
+        return (int) (Math.floorMod(millis, DAY_MILLIS) / BUCKET_MILLIS);
+    }
+}
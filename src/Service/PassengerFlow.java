@@ -0,0 +1,222 @@
+package Service;
+
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.StateChange;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Riders who wait at a floor, board a car with room that will stop at their destination, and alight there.
+// Boarding and alighting change the car's load, so load-aware dispatch sees the passengers it carries. A rider whose
+// floors no single zone serves rides leg by leg and calls again at each transfer floor
+public class PassengerFlow implements ElevatorListener {
+    private final ElevatorManagementService elevatorManagementService;
+    private final ZoneRouter zoneRouter;
+    private final LongSupplier clock;
+    private final Map<Integer, List<Passenger>> waitingByFloor;
+    private final Map<Integer, List<Passenger>> ridingByElevator;
+    private final List<Passenger> unassigned;
+    private final LatencyHistogram waitMillis;
+    private long requested;
+    private long boarded;
+    private long delivered;
+    private long overflows;
+    private long transfers;
+    private long totalWaitMillis;
+    private long totalRideMillis;
+
+    public PassengerFlow(final ElevatorService elevatorService,
+                         final ElevatorManagementService elevatorManagementService, final LongSupplier clock) {
+        this.elevatorManagementService = elevatorManagementService;
+        this.zoneRouter = elevatorService.getZoneRouter();
+        this.clock = clock;
+        this.waitingByFloor = new HashMap<>();
+        this.ridingByElevator = new HashMap<>();
+        this.unassigned = new ArrayList<>();
+        this.waitMillis = new LatencyHistogram();
+        elevatorService.addElevatorListener(this);
+    }
+
+    public int requestRide(final int startingFloor, final int destinationFloor) {
+        Passenger passenger = new Passenger(startingFloor, destinationFloor,
+                zoneRouter.nextLeg(startingFloor, destinationFloor), clock.getAsLong());
+        synchronized (this) {
+            requested++;
+            waitingByFloor.computeIfAbsent(startingFloor, floorNumber -> new ArrayList<>()).add(passenger);
+        }
+        return dispatch(passenger);
+    }
+
+    // Calls again for riders a full car left behind or no car could take; dispatch never runs under a car's monitor
+    public int redispatch() {
+        List<Passenger> retries;
+        synchronized (this) {
+            retries = new ArrayList<>();
+            for (Passenger passenger: unassigned) {
+                if (passenger.boardedAt < 0) {
+                    retries.add(passenger);
+                }
+            }
+            unassigned.clear();
+        }
+        for (Passenger passenger: retries) {
+            dispatch(passenger);
+        }
+        return retries.size();
+    }
+
+    private int dispatch(final Passenger passenger) {
+        int assigned = elevatorManagementService.requestElevator(passenger.startingFloor, passenger.legFloor);
+        synchronized (this) {
+            if (passenger.boardedAt < 0) {
+                passenger.assignedElevator = assigned;
+                if (assigned == -1) {
+                    unassigned.add(passenger);
+                }
+            }
+        }
+        return assigned;
+    }
+
+    // Called under the arriving car's monitor
+    @Override
+    public synchronized void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                                            final int value) {
+        if (change != StateChange.ARRIVED) {
+            return;
+        }
+        long now = clock.getAsLong();
+
+        List<Passenger> riding = ridingByElevator.get(elevator.getElevatorNumber());
+        if (riding != null) {
+            int alighting = 0;
+            for (Iterator<Passenger> iterator = riding.iterator(); iterator.hasNext(); ) {
+                Passenger passenger = iterator.next();
+                if (passenger.legFloor == floorNumber) {
+                    iterator.remove();
+                    alighting++;
+                    totalRideMillis += now - passenger.boardedAt;
+                    if (floorNumber == passenger.destinationFloor) {
+                        delivered++;
+                    } else {
+                        transfer(passenger, floorNumber, now);
+                    }
+                }
+            }
+            if (alighting > 0) {
+                elevator.reduceCurrentLoad(alighting);
+            }
+        }
+
+        List<Passenger> waiting = waitingByFloor.get(floorNumber);
+        if (waiting == null || waiting.isEmpty()) {
+            return;
+        }
+        int boarding = 0;
+        int room = elevator.getMaxCapacity() - elevator.getCurrentLoad();
+        for (Iterator<Passenger> iterator = waiting.iterator(); iterator.hasNext(); ) {
+            Passenger passenger = iterator.next();
+            if (!elevator.hasDestination(passenger.legFloor)) {
+                continue;
+            }
+            if (boarding < room) {
+                iterator.remove();
+                boarding++;
+                if (!passenger.transferred) {
+                    boarded++;
+                }
+                passenger.boardedAt = now;
+                totalWaitMillis += now - passenger.requestedAt;
+                waitMillis.record(now - passenger.requestedAt);
+                ridingByElevator.computeIfAbsent(elevator.getElevatorNumber(), number -> new ArrayList<>())
+                        .add(passenger);
+            } else if (passenger.assignedElevator == elevator.getElevatorNumber()) {
+                // The car sent for this rider arrived full
+                if (!passenger.overflowed) {
+                    passenger.overflowed = true;
+                    overflows++;
+                }
+                passenger.assignedElevator = -1;
+                unassigned.add(passenger);
+            }
+        }
+        if (boarding > 0) {
+            elevator.increaseCurrentLoad(boarding);
+        }
+    }
+
+    // The rider waits at the transfer floor for the next leg; redispatch() calls for it outside this car's monitor
+    private void transfer(final Passenger passenger, final int floorNumber, final long now) {
+        transfers++;
+        passenger.transferred = true;
+        passenger.startingFloor = floorNumber;
+        passenger.legFloor = zoneRouter.nextLeg(floorNumber, passenger.destinationFloor);
+        passenger.requestedAt = now;
+        passenger.boardedAt = -1;
+        passenger.assignedElevator = -1;
+        waitingByFloor.computeIfAbsent(floorNumber, floor -> new ArrayList<>()).add(passenger);
+        unassigned.add(passenger);
+    }
+
+    public synchronized long getRequested() {
+        return requested;
+    }
+
+    public synchronized long getBoarded() {
+        return boarded;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    // Riders a full car left behind at least once
+    public synchronized long getOverflows() {
+        return overflows;
+    }
+
+    public synchronized long getTransfers() {
+        return transfers;
+    }
+
+    // Per rider: the time spent waiting at every leg of the ride
+    public synchronized double getAverageWaitMillis() {
+        return boarded == 0 ? 0 : (double) totalWaitMillis / boarded;
+    }
+
+    // Over every leg's wait, so a transfer counts twice
+    public long getWaitMillisAtPercentile(final double percentile) {
+        return waitMillis.getValueAtPercentile(percentile);
+    }
+
+    public synchronized double getAverageRideMillis() {
+        return delivered == 0 ? 0 : (double) totalRideMillis / delivered;
+    }
+
+    private static class Passenger {
+        private final int destinationFloor;
+        // Where the current leg starts and ends, and when the rider called for it
+        private int startingFloor;
+        private int legFloor;
+        private long requestedAt;
+        private long boardedAt;
+        private int assignedElevator;
+        private boolean overflowed;
+        private boolean transferred;
+
+        private Passenger(final int startingFloor, final int destinationFloor, final int legFloor,
+                          final long requestedAt) {
+            this.startingFloor = startingFloor;
+            this.destinationFloor = destinationFloor;
+            this.legFloor = legFloor;
+            this.requestedAt = requestedAt;
+            this.boardedAt = -1;
+            this.assignedElevator = -1;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package Service;
+
+import Model.Direction;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Accepts button presses on http://127.0.0.1:<port>/call?floor=3&direction=UP, /call?floor=3&to=7 and
+// /stop?elevator=2&floor=7, answering with the assigned car's number or -1. Each exchange is answered when its
+// call completes, so the server's own thread never waits on dispatch
+public class RequestEndpoint {
+    private final HttpServer server;
+
+    public RequestEndpoint(final RequestFrontEnd requestFrontEnd, final int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/call", exchange -> {
+            Map<String, String> query = parseQuery(exchange);
+            CompletableFuture<Integer> assigned;
+            try {
+                int floor = Integer.parseInt(query.get("floor"));
+                if (query.containsKey("to")) {
+                    assigned = requestFrontEnd.requestElevator(floor, Integer.parseInt(query.get("to")));
+                } else {
+                    assigned = requestFrontEnd.requestElevator(
+                            Direction.valueOf(query.get("direction").toUpperCase()), floor);
+                }
+            } catch (RuntimeException e) {
+                respond(exchange, 400, "Usage: /call?floor=3&direction=UP or /call?floor=3&to=7");
+                return;
+            }
+            answer(exchange, assigned);
+        });
+        server.createContext("/stop", exchange -> {
+            Map<String, String> query = parseQuery(exchange);
+            CompletableFuture<Integer> assigned;
+            try {
+                assigned = requestFrontEnd.requestStop(Integer.parseInt(query.get("elevator")),
+                        Integer.parseInt(query.get("floor")));
+            } catch (RuntimeException e) {
+                respond(exchange, 400, "Usage: /stop?elevator=2&floor=7");
+                return;
+            }
+            answer(exchange, assigned);
+        });
+    }
+
+    // A call that failed is still answered, with -1, so the client never waits on an exchange left open
+    private static void answer(final HttpExchange exchange, final CompletableFuture<Integer> assigned) {
+        assigned.whenComplete((elevator, failure) -> {
+            if (failure != null) {
+                respond(exchange, 500, "-1");
+            } else {
+                respond(exchange, 200, String.valueOf(elevator));
+            }
+        });
+    }
+
+    private static Map<String, String> parseQuery(final HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair: raw.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(pair.substring(0, separator), pair.substring(separator + 1));
+            }
+        }
+        return query;
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String text) {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+}
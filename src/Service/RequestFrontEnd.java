@@ -0,0 +1,163 @@
+package Service;
+
+import Model.Direction;
+import Model.EventType;
+import Model.HallCall;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+// Runs each hall or car call on its own virtual thread where the runtime has them, or on a small pool otherwise.
+// At most maxInFlight calls are admitted at once; a call that has not been answered within the latency budget
+// completes with -1, and one still queued when its budget runs out is dropped without being dispatched
+public class RequestFrontEnd {
+    private final ElevatorManagementService elevatorManagementService;
+    private final ElevatorService elevatorService;
+    private final FloorService floorService;
+    private final ExecutorService executor;
+    private final Semaphore admissions;
+    private final int maxInFlight;
+    private final long latencyBudgetNanos;
+    private final AtomicLong accepted;
+    private final AtomicLong rejected;
+    private final AtomicLong expired;
+    private final AtomicLong timedOut;
+
+    public RequestFrontEnd(final ElevatorManagementService elevatorManagementService,
+                           final ElevatorService elevatorService, final FloorService floorService,
+                           final int maxInFlight, final long latencyBudgetMillis) {
+        this.elevatorManagementService = elevatorManagementService;
+        this.elevatorService = elevatorService;
+        this.floorService = floorService;
+        this.executor = newExecutor(Runtime.getRuntime().availableProcessors());
+        this.admissions = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.latencyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(latencyBudgetMillis);
+        this.accepted = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.expired = new AtomicLong();
+        this.timedOut = new AtomicLong();
+    }
+
+    public RequestFrontEnd(final ElevatorManagementService elevatorManagementService,
+                           final ElevatorService elevatorService, final FloorService floorService) {
+        this(elevatorManagementService, elevatorService, floorService,
+                Integer.getInteger("elevator.maxInFlightCalls", 10000),
+                Long.getLong("elevator.callLatencyBudgetMillis", 250));
+    }
+
+    private static ExecutorService newExecutor(final int carrierThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // No virtual threads on this runtime; admission control already bounds the queue
+            return Executors.newFixedThreadPool(carrierThreads, runnable -> {
+                Thread thread = new Thread(runnable, "request-front-end");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void registerMetrics(final ElevatorMetrics elevatorMetrics) {
+        elevatorMetrics.registerGauge("elevator_front_end_in_flight", this::getInFlight);
+        elevatorMetrics.registerGauge("elevator_front_end_accepted", accepted::get);
+        elevatorMetrics.registerGauge("elevator_front_end_rejected", rejected::get);
+        elevatorMetrics.registerGauge("elevator_front_end_expired", expired::get);
+        elevatorMetrics.registerGauge("elevator_front_end_timed_out", timedOut::get);
+    }
+
+    public CompletableFuture<Integer> requestElevator(final Direction direction, final int startingFloor) {
+        return submit(startingFloor, () -> elevatorManagementService.requestElevator(
+                new HallCall(direction, startingFloor)));
+    }
+
+    public CompletableFuture<Integer> requestElevator(final int startingFloor, final int destinationFloor) {
+        return submit(startingFloor, () -> elevatorManagementService.requestElevator(startingFloor,
+                destinationFloor));
+    }
+
+    // Completes with the car's number once the stop is registered, or -1 for an unknown car or a floor it skips
+    public CompletableFuture<Integer> requestStop(final int elevatorNumber, final int floorNumber) {
+        return submit(floorNumber, () -> {
+            if (!floorService.checkFloorNumber(floorNumber)) {
+                elevatorManagementService.getEventJournal().record(EventType.INVALID_FLOOR, elevatorNumber,
+                        floorNumber);
+                return -1;
+            }
+            return elevatorService.requestStop(elevatorNumber, floorService.getFloor(floorNumber))
+                    ? elevatorNumber : -1;
+        });
+    }
+
+    private CompletableFuture<Integer> submit(final int floorNumber, final IntSupplier call) {
+        if (!admissions.tryAcquire()) {
+            rejected.incrementAndGet();
+            elevatorManagementService.getEventJournal().record(EventType.HALL_CALL_REJECTED, -1, floorNumber);
+            return CompletableFuture.completedFuture(-1);
+        }
+        accepted.incrementAndGet();
+
+        long deadline = System.nanoTime() + latencyBudgetNanos;
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (System.nanoTime() - deadline > 0) {
+                        expired.incrementAndGet();
+                        result.complete(-1);
+                    } else {
+                        result.complete(call.getAsInt());
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    admissions.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            result.complete(-1);
+        }
+        return result.orTimeout(latencyBudgetNanos, TimeUnit.NANOSECONDS).exceptionally(failure -> {
+            if (failure instanceof TimeoutException) {
+                timedOut.incrementAndGet();
+                return -1;
+            }
+            throw new CompletionException(failure);
+        });
+    }
+
+    public long getInFlight() {
+        return maxInFlight - admissions.availablePermits();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    // Calls still running when their budget ran out; the caller was answered -1 but the call itself went through
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
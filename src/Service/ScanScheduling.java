@@ -0,0 +1,25 @@
+package Service;
+
+import Model.Direction;
+import Model.StopSet;
+
+public class ScanScheduling implements StopSchedulingStrategy {
+    @Override
+    public int selectNextStop(final int floorAt, final Direction direction, final StopSet stoppingFloors,
+                              final int minFloor, final int maxFloor) {
+        // Unlike LOOK, the car runs to the end of its range before it reverses
+        if (direction == Direction.DOWN) {
+            int below = stoppingFloors.nextAtOrBelow(floorAt);
+            if (below != StopSet.NONE) {
+                return below;
+            }
+            return floorAt > minFloor ? minFloor : stoppingFloors.nextAtOrAbove(floorAt);
+        }
+
+        int above = stoppingFloors.nextAtOrAbove(floorAt);
+        if (above != StopSet.NONE) {
+            return above;
+        }
+        return floorAt < maxFloor ? maxFloor : stoppingFloors.nextAtOrBelow(floorAt);
+    }
+}
@@ -0,0 +1,9 @@
+package Service;
+
+import Model.Direction;
+import Model.StopSet;
+
+public interface StopSchedulingStrategy {
+    // Picks the floor the car travels to next; the set is never empty when this is called
+    int selectNextStop(int floorAt, Direction direction, StopSet stoppingFloors, int minFloor, int maxFloor);
+}
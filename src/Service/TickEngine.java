@@ -0,0 +1,197 @@
+package Service;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.StateChange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves only the cars that have somewhere to go or commands waiting. A car joins the active cars when it is given a
+// direction, returns to service or has a command posted, and leaves once a tick finds it idle. The tick is scheduled
+// only while some car is active, so an idle fleet costs nothing until a call or a button press wakes a car, and a
+// tick costs the active cars, not the fleet
+public class TickEngine implements ElevatorListener {
+    private final ElevatorService elevatorService;
+    // Keyed by car number, so cars are moved in fleet order whichever woke first
+    private final ConcurrentSkipListMap<Integer, Elevator> activeElevators;
+    private final ScheduledExecutorService scheduler;
+    private final ForkJoinPool workerPool;
+    private final AtomicLong tickCount;
+    private final AtomicLong missedDeadlines;
+    private volatile long tickPeriodMillis;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile TraceRecorder traceRecorder;
+    private volatile ScheduledFuture<?> tickTask;
+    private boolean started;
+
+    public TickEngine(final ElevatorService elevatorService, final long tickPeriodMillis, final int parallelism) {
+        this.elevatorService = elevatorService;
+        this.activeElevators = new ConcurrentSkipListMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.workerPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.tickCount = new AtomicLong();
+        this.missedDeadlines = new AtomicLong();
+        this.tickPeriodMillis = tickPeriodMillis;
+        elevatorService.addElevatorListener(this);
+    }
+
+    public TickEngine(final ElevatorService elevatorService, final long tickPeriodMillis) {
+        this(elevatorService, tickPeriodMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    public synchronized void start() {
+        started = true;
+        if (!activeElevators.isEmpty()) {
+            schedule();
+        }
+    }
+
+    public synchronized void stop() {
+        started = false;
+        unschedule();
+    }
+
+    public synchronized void setTickPeriodMillis(final long tickPeriodMillis) {
+        this.tickPeriodMillis = tickPeriodMillis;
+        if (tickTask != null) {
+            unschedule();
+            schedule();
+        }
+    }
+
+    // The first tick after a wake-up comes a period later, when the car reaches its next floor
+    private synchronized void schedule() {
+        if (started && tickTask == null) {
+            tickTask = scheduler.scheduleAtFixedRate(this::tick, tickPeriodMillis, tickPeriodMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void unschedule() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+    }
+
+    // A car woken while the tick was being dropped sees no tick yet and schedules one, or is seen here
+    private synchronized void unscheduleIfIdle() {
+        if (activeElevators.isEmpty()) {
+            unschedule();
+            if (!activeElevators.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        if (change == StateChange.ADDED || change == StateChange.DIRECTION_CHANGED
+                || change == StateChange.CONDITION_CHANGED) {
+            wake(elevator);
+        } else if (change == StateChange.NUMBER_CHANGED && activeElevators.remove(value, elevator)) {
+            wake(elevator);
+        }
+    }
+
+    @Override
+    public void onCommandPosted(final Elevator elevator) {
+        wake(elevator);
+    }
+
+    private void wake(final Elevator elevator) {
+        if (isActive(elevator) && activeElevators.putIfAbsent(elevator.getElevatorNumber(), elevator) == null
+                && tickTask == null) {
+            schedule();
+        }
+    }
+
+    private static boolean isActive(final Elevator elevator) {
+        return (elevator.getDirection() != Direction.STOP && elevator.getElevatorCondition() == Condition.WORKING)
+                || elevator.hasCommands();
+    }
+
+    void setTraceRecorder(final TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    public void tick() {
+        long start = System.nanoTime();
+        TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.recordTick();
+        }
+
+        // Each car is advanced by exactly one worker, so cars never share a mover within a tick
+        if (workerPool == null) {
+            activeElevators.entrySet().forEach(this::advance);
+        } else {
+            workerPool.submit(() -> activeElevators.entrySet().parallelStream().forEach(this::advance)).join();
+        }
+        if (activeElevators.isEmpty()) {
+            unscheduleIfIdle();
+        }
+
+        long duration = System.nanoTime() - start;
+        lastTickNanos = duration;
+        if (duration > maxTickNanos) {
+            maxTickNanos = duration;
+        }
+        if (duration > TimeUnit.MILLISECONDS.toNanos(tickPeriodMillis)) {
+            missedDeadlines.incrementAndGet();
+        }
+        tickCount.incrementAndGet();
+    }
+
+    private void advance(final Map.Entry<Integer, Elevator> entry) {
+        Elevator elevator = entry.getValue();
+        if (elevator.getDirection() != Direction.STOP && elevator.getElevatorCondition() == Condition.WORKING) {
+            elevatorService.moveToNextFloor(elevator);
+        } else if (elevator.hasCommands()) {
+            elevator.applyCommands();
+        }
+
+        // Checked again after leaving, so a wake-up that raced the check is not lost
+        if (!isActive(elevator)) {
+            activeElevators.remove(entry.getKey(), elevator);
+            if (isActive(elevator)) {
+                wake(elevator);
+            }
+        }
+    }
+
+    public long getTickPeriodMillis() {
+        return tickPeriodMillis;
+    }
+
+    public int getActiveElevators() {
+        return activeElevators.size();
+    }
+
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    public long getMissedDeadlines() {
+        return missedDeadlines.get();
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+}
@@ -0,0 +1,229 @@
+package Service;
+
+import Model.Condition;
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.HallCall;
+import Model.StateChange;
+import Model.TraceEvent;
+import Model.Zone;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Header of magic, version, wall-clock start, tick period and floor range, then fixed records of a type byte,
+// nanoseconds since the start, the car and four values. Records are appended lock-free to memory-mapped chunks of
+// the file, so recording costs a caller one claimed slot and a few stores
+public class TraceRecorder implements ElevatorListener {
+    static final int MAGIC = 0x454C5452;
+    // Version 2 adds the zone records; version 1 traces still read
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 28;
+    static final int RECORD_SIZE = 29;
+
+    private final FileChannel channel;
+    private final int chunkBytes;
+    private final long startNanos;
+    private final AtomicLong droppedRecords;
+    // Numbers each zone seen, so the replay can tell apart zones that share floors, as the index does
+    private final Map<Zone, Integer> zoneIds;
+    private final AtomicInteger nextZoneId;
+    private volatile Chunk chunk;
+    private long chunkOffset;
+
+    private TraceRecorder(final FileChannel channel, final int chunkBytes) {
+        this.channel = channel;
+        this.chunkBytes = chunkBytes - chunkBytes % RECORD_SIZE;
+        this.startNanos = System.nanoTime();
+        this.droppedRecords = new AtomicLong();
+        this.zoneIds = new ConcurrentHashMap<>();
+        this.nextZoneId = new AtomicInteger();
+    }
+
+    // Starts a new trace; hand it to ElevatorManagementService.setTraceRecorder to record
+    public static TraceRecorder create(final Path path, final FloorService floorService, final long tickPeriodMillis,
+                                       final int chunkBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        header.putLong(System.currentTimeMillis());
+        header.putInt((int) tickPeriodMillis);
+        header.putInt(floorService.getLowestFloor());
+        header.putInt(floorService.getHighestFloor());
+        header.flip();
+        channel.write(header, 0);
+
+        TraceRecorder traceRecorder = new TraceRecorder(channel, chunkBytes);
+        traceRecorder.chunk = traceRecorder.map(HEADER_SIZE);
+        return traceRecorder;
+    }
+
+    public static TraceRecorder create(final Path path, final FloorService floorService, final long tickPeriodMillis)
+            throws IOException {
+        return create(path, floorService, tickPeriodMillis, Integer.getInteger("elevator.traceChunkBytes", 1 << 20));
+    }
+
+    public void recordHallCall(final HallCall hallCall, final int assignedElevator) {
+        append(TraceEvent.HALL_CALL, assignedElevator, hallCall.getDirection().ordinal(),
+                hallCall.getStartingFloor(), hallCall.getDestinationFloor(), 0);
+    }
+
+    public void recordStop(final int elevatorNumber, final int floorNumber) {
+        append(TraceEvent.STOP_REQUESTED, elevatorNumber, floorNumber, 0, 0, 0);
+    }
+
+    public void recordElevatorStopped(final int elevatorNumber) {
+        append(TraceEvent.ELEVATOR_STOPPED, elevatorNumber, 0, 0, 0, 0);
+    }
+
+    public void recordTick() {
+        append(TraceEvent.TICK, -1, 0, 0, 0, 0);
+    }
+
+    // Cars, their condition and their load come from the cars themselves, whichever path changed them
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        if (change == StateChange.ADDED) {
+            Zone zone = elevator.getZone();
+            if (zone != null) {
+                int[] lobbies = zone.getLobbies();
+                append(TraceEvent.ELEVATOR_ZONE, elevator.getElevatorNumber(),
+                        zoneIds.computeIfAbsent(zone, key -> nextZoneId.getAndIncrement()), zone.getLowestFloor(),
+                        zone.getHighestFloor(), lobbies.length);
+                for (int lobby: lobbies) {
+                    append(TraceEvent.ZONE_LOBBY, elevator.getElevatorNumber(), lobby, 0, 0, 0);
+                }
+            }
+            append(TraceEvent.ELEVATOR_ADDED, elevator.getElevatorNumber(), elevator.getMaxCapacity(), floorNumber,
+                    elevator.getMinFloor().getFloorNumber(), elevator.getMaxFloor().getFloorNumber());
+            if (elevator.getElevatorCondition() != Condition.WORKING) {
+                append(TraceEvent.CONDITION_CHANGED, elevator.getElevatorNumber(),
+                        elevator.getElevatorCondition().ordinal(), 0, 0, 0);
+            }
+            if (elevator.getCurrentLoad() != 0) {
+                append(TraceEvent.LOAD_CHANGED, elevator.getElevatorNumber(), elevator.getCurrentLoad(), 0, 0, 0);
+            }
+        } else if (change == StateChange.CONDITION_CHANGED) {
+            append(TraceEvent.CONDITION_CHANGED, elevator.getElevatorNumber(), value, 0, 0, 0);
+        } else if (change == StateChange.LOAD_CHANGED) {
+            append(TraceEvent.LOAD_CHANGED, elevator.getElevatorNumber(), value, 0, 0, 0);
+        }
+    }
+
+    // Records that could not be written because the file could not grow
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    public synchronized void close() {
+        Chunk current = chunk;
+        chunk = null;
+        if (current != null) {
+            current.buffer.force();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Could not close trace file: " + e.getMessage());
+        }
+    }
+
+    private void append(final TraceEvent event, final int elevatorNumber, final int a, final int b, final int c,
+                        final int d) {
+        long nanos = System.nanoTime() - startNanos;
+        for (Chunk current = chunk; current != null; current = chunk) {
+            int offset = current.position.getAndAdd(RECORD_SIZE);
+            if (offset > chunkBytes - RECORD_SIZE) {
+                next(current);
+                continue;
+            }
+
+            MappedByteBuffer buffer = current.buffer;
+            buffer.putLong(offset + 1, nanos);
+            buffer.putInt(offset + 9, elevatorNumber);
+            buffer.putInt(offset + 13, a);
+            buffer.putInt(offset + 17, b);
+            buffer.putInt(offset + 21, c);
+            buffer.putInt(offset + 25, d);
+            // The type goes in last, so a record cut short reads as the end of the trace
+            buffer.put(offset, (byte) (event.ordinal() + 1));
+            return;
+        }
+        droppedRecords.incrementAndGet();
+    }
+
+    // Only the first caller to fill a chunk maps the next one
+    private synchronized void next(final Chunk full) {
+        if (chunk != full) {
+            return;
+        }
+        try {
+            chunk = map(chunkOffset + chunkBytes);
+        } catch (IOException e) {
+            System.out.println("Could not extend trace file: " + e.getMessage());
+            chunk = null;
+        }
+    }
+
+    private Chunk map(final long offset) throws IOException {
+        chunkOffset = offset;
+        return new Chunk(channel.map(FileChannel.MapMode.READ_WRITE, offset, chunkBytes));
+    }
+
+    // Calls onHeader once, then onRecord for every record until the end of the trace; returns the record count
+    public static int read(final Path path, final RecordHandler handler) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) < 1
+                || buffer.getInt(4) > FORMAT_VERSION) {
+            throw new IOException("Unrecognised trace " + path);
+        }
+        handler.onHeader(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20), buffer.getInt(24));
+
+        TraceEvent[] events = TraceEvent.values();
+        int records = 0;
+        for (int offset = HEADER_SIZE; offset <= buffer.capacity() - RECORD_SIZE; offset += RECORD_SIZE) {
+            int type = buffer.get(offset);
+            if (type <= 0 || type > events.length) {
+                break;
+            }
+            handler.onRecord(events[type - 1], buffer.getLong(offset + 1), buffer.getInt(offset + 9),
+                    buffer.getInt(offset + 13), buffer.getInt(offset + 17), buffer.getInt(offset + 21),
+                    buffer.getInt(offset + 25));
+            records++;
+        }
+        return records;
+    }
+
+    public interface RecordHandler {
+        void onHeader(long startEpochMillis, int tickPeriodMillis, int lowestFloor, int highestFloor);
+
+        // For a hall call the car is the one assigned and the values are direction, start and destination floor;
+        // for a new car they are capacity, floor, lowest and highest floor; for a car's zone they are the zone's
+        // number, lowest and highest own floor and lobby count; otherwise only the first is used
+        void onRecord(TraceEvent event, long nanos, int elevatorNumber, int a, int b, int c, int d);
+    }
+
+    private static class Chunk {
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger position;
+
+        private Chunk(final MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = new AtomicInteger();
+        }
+    }
+}
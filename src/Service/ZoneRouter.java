@@ -0,0 +1,101 @@
+package Service;
+
+import Model.StopSet;
+import Model.Zone;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Plans rides across zones: a rider whose floors no single bank serves rides to a transfer floor, usually a sky
+// lobby, and calls again from there
+public class ZoneRouter {
+    private final List<Zone> zones;
+
+    public ZoneRouter() {
+        this.zones = new CopyOnWriteArrayList<>();
+    }
+
+    public synchronized void addZone(final Zone zone) {
+        if (!zones.contains(zone)) {
+            zones.add(zone);
+        }
+    }
+
+    public List<Zone> getZones() {
+        return Collections.unmodifiableList(zones);
+    }
+
+    public List<Zone> getZonesServing(final int floorNumber) {
+        List<Zone> serving = new ArrayList<>();
+        for (Zone zone: zones) {
+            if (zone.serves(floorNumber)) {
+                serving.add(zone);
+            }
+        }
+        return serving;
+    }
+
+    // The floor to ride to first: the destination when one zone serves both floors, otherwise the first transfer
+    // floor on the route through the fewest zones. A building without zones, or with no route, gets the destination
+    public int nextLeg(final int startingFloor, final int destinationFloor) {
+        if (zones.isEmpty()) {
+            return destinationFloor;
+        }
+
+        // Breadth-first over zones, remembering the floor each zone was entered at and the first transfer taken
+        Map<Zone, int[]> reached = new HashMap<>();
+        Deque<Zone> frontier = new ArrayDeque<>();
+        for (Zone zone: zones) {
+            if (zone.serves(startingFloor)) {
+                if (zone.serves(destinationFloor)) {
+                    return destinationFloor;
+                }
+                reached.put(zone, new int[] {startingFloor, StopSet.NONE});
+                frontier.add(zone);
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            Zone zone = frontier.poll();
+            int[] entry = reached.get(zone);
+            for (Zone next: zones) {
+                if (reached.containsKey(next)) {
+                    continue;
+                }
+                int transfer = transferFloor(zone, next, entry[0], destinationFloor);
+                if (transfer == Integer.MIN_VALUE) {
+                    continue;
+                }
+                int firstLeg = entry[1] == StopSet.NONE ? transfer : entry[1];
+                if (next.serves(destinationFloor)) {
+                    return firstLeg;
+                }
+                reached.put(next, new int[] {transfer, firstLeg});
+                frontier.add(next);
+            }
+        }
+        return destinationFloor;
+    }
+
+    // The shared floor that keeps the ride shortest, or Integer.MIN_VALUE when the zones share none
+    private static int transferFloor(final Zone from, final Zone to, final int enteredAt, final int destinationFloor) {
+        int best = Integer.MIN_VALUE;
+        int bestLength = Integer.MAX_VALUE;
+        for (int floor: from.getServedFloors()) {
+            if (floor != enteredAt && to.serves(floor)) {
+                int length = Math.abs(floor - enteredAt) + Math.abs(destinationFloor - floor);
+                if (length < bestLength) {
+                    best = floor;
+                    bestLength = length;
+                }
+            }
+        }
+        return best;
+    }
+}
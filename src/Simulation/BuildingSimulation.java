@@ -0,0 +1,155 @@
+package Simulation;
+
+import Model.Elevator;
+import Model.Floor;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Usage: BuildingSimulation [seed] [floors] [elevators] [simulated hours] [calls per minute]
+public class BuildingSimulation {
+    private static final long TICK_MILLIS = 1000;
+
+    private final SimulationEngine engine;
+    private final ElevatorManagementService elevatorManagementService;
+    private final ElevatorService elevatorService;
+    private final int floorCount;
+    private final Map<Integer, List<long[]>> waitingByElevator;
+    private long[] waits;
+    private int served;
+    private int calls;
+    private int unassigned;
+
+    public BuildingSimulation(final long seed, final int floorCount, final int elevatorCount) {
+        this.engine = new SimulationEngine(seed);
+        this.elevatorManagementService = ElevatorManagementService.getInstance();
+        this.elevatorService = ElevatorService.getInstance();
+        this.floorCount = floorCount;
+        this.waitingByElevator = new HashMap<>();
+        this.waits = new long[1024];
+
+        // Virtual time replaces the wall-clock tick and dispatch cycles
+        elevatorManagementService.stop();
+
+        FloorService floorService = FloorService.getInstance();
+        for (int i = 0; i < floorCount; i++) {
+            floorService.addFloor(i);
+        }
+        Floor groundFloor = floorService.getFloor(0);
+        Floor topFloor = floorService.getFloor(floorCount - 1);
+        for (int i = 1; i <= elevatorCount; i++) {
+            elevatorService.addElevator(i, 20, groundFloor, groundFloor, topFloor);
+        }
+
+        engine.scheduleEvery(TICK_MILLIS, this::tick);
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public void addPoissonArrivals(final double callsPerMinute, final long untilMillis) {
+        Random random = engine.getRandom();
+        double meanGapMillis = 60000 / callsPerMinute;
+        long gap = (long) (-Math.log(1 - random.nextDouble()) * meanGapMillis);
+        if (engine.getClock().millis() + gap > untilMillis) {
+            return;
+        }
+
+        engine.scheduleAfter(gap, () -> {
+            int startingFloor = random.nextInt(floorCount);
+            int destinationFloor = random.nextInt(floorCount - 1);
+            if (destinationFloor >= startingFloor) {
+                destinationFloor++;
+            }
+            hallCall(startingFloor, destinationFloor);
+            addPoissonArrivals(callsPerMinute, untilMillis);
+        });
+    }
+
+    public void hallCall(final int startingFloor, final int destinationFloor) {
+        calls++;
+        int elevatorNumber = elevatorManagementService.requestElevator(startingFloor, destinationFloor);
+        if (elevatorNumber == -1) {
+            unassigned++;
+            return;
+        }
+        waitingByElevator.computeIfAbsent(elevatorNumber, number -> new ArrayList<>())
+                .add(new long[] {startingFloor, engine.getClock().millis()});
+    }
+
+    private void tick() {
+        elevatorManagementService.moveElevators();
+
+        long now = engine.getClock().millis();
+        for (Elevator elevator: elevatorService.getElevators()) {
+            List<long[]> waiting = waitingByElevator.get(elevator.getElevatorNumber());
+            if (waiting == null || waiting.isEmpty()) {
+                continue;
+            }
+            int floorAt = elevator.getFloorAt().getFloorNumber();
+            waiting.removeIf(passenger -> {
+                if (passenger[0] != floorAt) {
+                    return false;
+                }
+                recordWait(now - passenger[1]);
+                return true;
+            });
+        }
+    }
+
+    private void recordWait(final long waitMillis) {
+        if (served == waits.length) {
+            waits = Arrays.copyOf(waits, served * 2);
+        }
+        waits[served++] = waitMillis;
+    }
+
+    public void printReport(final PrintStream console, final long wallMillis) {
+        long[] sorted = Arrays.copyOf(waits, served);
+        Arrays.sort(sorted);
+        double total = 0;
+        for (long wait: sorted) {
+            total += wait;
+        }
+
+        long simulatedMillis = engine.getClock().millis();
+        console.printf("simulated %.1f h in %.2f s wall (%.0fx real time)%n",
+                simulatedMillis / 3600000.0, wallMillis / 1000.0, simulatedMillis / Math.max(wallMillis, 1.0));
+        console.printf("calls=%d served=%d unassigned=%d%n", calls, served, unassigned);
+        if (served > 0) {
+            console.printf("wait avg=%.1f s p95=%.1f s max=%.1f s%n", total / served / 1000,
+                    sorted[(int) (served * 0.95)] / 1000.0, sorted[served - 1] / 1000.0);
+        }
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int elevators = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        double hours = args.length > 3 ? Double.parseDouble(args[3]) : 24;
+        double callsPerMinute = args.length > 4 ? Double.parseDouble(args[4]) : 60;
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        BuildingSimulation simulation = new BuildingSimulation(seed, floors, elevators);
+        long endMillis = (long) (hours * 3600000);
+        simulation.addPoissonArrivals(callsPerMinute, endMillis);
+
+        long start = System.currentTimeMillis();
+        simulation.getEngine().runUntil(endMillis);
+        simulation.printReport(console, System.currentTimeMillis() - start);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,68 @@
+package Simulation;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Service.ElevatorService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Unlike the tick engine, which jumps a car to its next stop each tick, cars here take floorMillis per floor
+// travelled and dwellMillis at every stop, so how far a car is from a call matters
+public class CarMotion {
+    private static final int NO_LEG = Integer.MIN_VALUE;
+
+    private final ElevatorService elevatorService;
+    private final long floorMillis;
+    private final long dwellMillis;
+    private final Map<Integer, long[]> legs;
+
+    public CarMotion(final ElevatorService elevatorService, final long floorMillis, final long dwellMillis) {
+        this.elevatorService = elevatorService;
+        this.floorMillis = floorMillis;
+        this.dwellMillis = dwellMillis;
+        this.legs = new HashMap<>();
+    }
+
+    public void advance(final long now) {
+        for (Elevator elevator: elevatorService.getElevators()) {
+            advance(elevator, now, legs.computeIfAbsent(elevator.getElevatorNumber(),
+                    number -> new long[] {0, NO_LEG}));
+        }
+    }
+
+    // A car at rest picks its next stop and departs; it reaches the stop after the travel time and then dwells there.
+    // The leg is {ready at, floor the car is heading to}
+    private void advance(final Elevator elevator, final long now, final long[] leg) {
+        if (elevator.getElevatorCondition() != Condition.WORKING || now < leg[0]) {
+            return;
+        }
+        // Parking moves and car buttons arrive through the car's mailbox
+        elevator.applyCommands();
+        synchronized (elevator) {
+            if (leg[1] == NO_LEG) {
+                if (!elevator.hasStoppingFloors()) {
+                    if (elevator.getDirection() != Direction.STOP) {
+                        elevatorService.moveToNextFloor(elevator);
+                    }
+                    return;
+                }
+                int floorAt = elevator.getFloorAt().getFloorNumber();
+                // The service's own strategy, so the leg timed is the one moveToNextFloor then takes
+                leg[1] = elevatorService.getStopSchedulingStrategy().selectNextStop(floorAt, elevator.getDirection(),
+                        elevator.getStoppingFloors(), elevator.getMinFloor().getFloorNumber(),
+                        elevator.getMaxFloor().getFloorNumber());
+                leg[0] = now + Math.abs(leg[1] - floorAt) * floorMillis;
+                if (leg[0] > now) {
+                    return;
+                }
+            }
+            // Running to the end of the range to reverse is no stop, so the car does not dwell there
+            boolean stopping = elevator.getStoppingFloors().contains((int) leg[1]);
+            leg[1] = NO_LEG;
+            elevatorService.moveToNextFloor(elevator);
+            leg[0] = stopping ? now + dwellMillis : now;
+        }
+    }
+}
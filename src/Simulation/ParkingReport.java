@@ -0,0 +1,134 @@
+package Simulation;
+
+import Model.Floor;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.ParkingPlanner;
+import Service.PassengerFlow;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+// Usage: ParkingReport [seed] [floors] [elevators] [days]
+// An office day: morning up-peak, lunch, evening down-peak and light inter-floor traffic in between. The same
+// arrivals run once with cars left where they finish and once with the parking planner; the planner learns from the
+// first days and the last day is measured. Cars travel and dwell (CarMotion), so where an idle car waits matters
+public class ParkingReport {
+    private static final long TICK_MILLIS = 500;
+    private static final long FLOOR_MILLIS = 1500;
+    private static final long DWELL_MILLIS = 5000;
+    private static final long PARKING_PERIOD_MILLIS = 30000;
+    private static final long DAY_MILLIS = 86400000;
+    private static final long HOUR_MILLIS = 3600000;
+    private static final String[] PERIOD_NAMES = {"night", "up-peak", "midday", "lunch", "afternoon", "down-peak",
+            "evening"};
+    private static final int[] PERIOD_END_HOURS = {8, 10, 12, 13, 17, 19, 24};
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int elevators = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int days = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        console.printf("office day floors=%d elevators=%d, measuring day %d%n", floors, elevators, days);
+        run(console, false, seed, floors, elevators, days);
+        run(console, true, seed, floors, elevators, days);
+        System.exit(0);
+    }
+
+    private static void run(final PrintStream console, final boolean parking, final long seed, final int floors,
+                            final int elevators, final int days) {
+        SimulationEngine engine = new SimulationEngine(seed);
+        FloorService floorService = new FloorService();
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("parking");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(elevatorService,
+                floorService, elevatorMetrics, 1);
+
+        for (int i = 0; i < floors; i++) {
+            floorService.addFloor(i);
+        }
+        Floor lobby = floorService.getFloor(0);
+        for (int i = 1; i <= elevators; i++) {
+            elevatorService.addElevator(i, 12, lobby, lobby, floorService.getFloor(floors - 1));
+        }
+        PassengerFlow passengerFlow = new PassengerFlow(elevatorService, elevatorManagementService,
+                () -> engine.getClock().millis());
+
+        CarMotion carMotion = new CarMotion(elevatorService, FLOOR_MILLIS, DWELL_MILLIS);
+        engine.scheduleEvery(TICK_MILLIS, () -> {
+            carMotion.advance(engine.getClock().millis());
+            passengerFlow.redispatch();
+        });
+        if (parking) {
+            ParkingPlanner parkingPlanner = new ParkingPlanner(elevatorService, floorService, 0, floors - 1,
+                    () -> engine.getClock().millis());
+            elevatorManagementService.setParkingPlanner(parkingPlanner);
+            engine.scheduleEvery(PARKING_PERIOD_MILLIS, parkingPlanner::park);
+        }
+        scheduleArrival(engine, passengerFlow, floors);
+
+        // Waits are attributed to the period in which the rider boarded
+        engine.runUntil((days - 1) * DAY_MILLIS);
+        StringBuilder periods = new StringBuilder();
+        long dayBoarded = 0;
+        double dayWait = 0;
+        for (int period = 0; period < PERIOD_NAMES.length; period++) {
+            long boardedBefore = passengerFlow.getBoarded();
+            double waitBefore = passengerFlow.getAverageWaitMillis() * boardedBefore;
+            engine.runUntil((days - 1) * DAY_MILLIS + PERIOD_END_HOURS[period] * HOUR_MILLIS);
+            long boarded = passengerFlow.getBoarded() - boardedBefore;
+            double wait = passengerFlow.getAverageWaitMillis() * passengerFlow.getBoarded() - waitBefore;
+            periods.append(String.format(" %s=%.1f", PERIOD_NAMES[period], wait / Math.max(boarded, 1) / 1000));
+            dayBoarded += boarded;
+            dayWait += wait;
+        }
+
+        console.printf("%-10s riders=%d wait avg=%.2f s by period:%s still waiting=%d%n",
+                parking ? "parking" : "no parking", dayBoarded, dayWait / Math.max(dayBoarded, 1) / 1000,
+                periods, passengerFlow.getRequested() - passengerFlow.getBoarded());
+    }
+
+    // Arrivals per minute and the share starting at / ending at the lobby for each hour of the day
+    private static double[] profile(final long timeOfDay) {
+        int hour = (int) (timeOfDay / HOUR_MILLIS);
+        if (hour >= 8 && hour < 10) {
+            return new double[] {15, 0.85, 0.05};
+        } else if (hour == 12) {
+            return new double[] {10, 0.4, 0.4};
+        } else if (hour >= 17 && hour < 19) {
+            return new double[] {15, 0.05, 0.85};
+        } else if (hour >= 7 && hour < 20) {
+            return new double[] {4, 0.2, 0.2};
+        }
+        return new double[] {0.5, 0.3, 0.3};
+    }
+
+    private static void scheduleArrival(final SimulationEngine engine, final PassengerFlow passengerFlow,
+                                        final int floors) {
+        Random random = engine.getRandom();
+        double[] profile = profile(engine.getClock().millis() % DAY_MILLIS);
+        engine.scheduleAfter((long) (-Math.log(1 - random.nextDouble()) * 60000 / profile[0]) + 1, () -> {
+            double[] now = profile(engine.getClock().millis() % DAY_MILLIS);
+            double roll = random.nextDouble();
+            int startingFloor = 1 + random.nextInt(floors - 1);
+            int destinationFloor = 1 + random.nextInt(floors - 1);
+            if (roll < now[1]) {
+                startingFloor = 0;
+            } else if (roll < now[1] + now[2]) {
+                destinationFloor = 0;
+            }
+            if (destinationFloor != startingFloor) {
+                passengerFlow.requestRide(startingFloor, destinationFloor);
+            }
+            scheduleArrival(engine, passengerFlow, floors);
+        });
+    }
+}
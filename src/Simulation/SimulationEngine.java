@@ -0,0 +1,74 @@
+package Simulation;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+
+public class SimulationEngine {
+    private final VirtualClock clock;
+    private final Queue<ScheduledEvent> events;
+    private final Random random;
+    private long sequence;
+
+    public SimulationEngine(final long seed) {
+        this.clock = new VirtualClock();
+        this.events = new PriorityQueue<>();
+        this.random = new Random(seed);
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    public void schedule(final long atMillis, final Runnable action) {
+        events.add(new ScheduledEvent(Math.max(atMillis, clock.millis()), sequence++, action));
+    }
+
+    public void scheduleAfter(final long delayMillis, final Runnable action) {
+        schedule(clock.millis() + delayMillis, action);
+    }
+
+    public void scheduleEvery(final long periodMillis, final Runnable action) {
+        scheduleAfter(periodMillis, () -> {
+            action.run();
+            scheduleEvery(periodMillis, action);
+        });
+    }
+
+    // Runs events in time order, ties in the order they were scheduled, until the queue is empty or the end is reached
+    public long runUntil(final long endMillis) {
+        long processed = 0;
+        while (!events.isEmpty() && events.peek().atMillis <= endMillis) {
+            ScheduledEvent event = events.poll();
+            clock.advanceTo(event.atMillis);
+            event.action.run();
+            processed++;
+        }
+        clock.advanceTo(endMillis);
+        return processed;
+    }
+
+    private static class ScheduledEvent implements Comparable<ScheduledEvent> {
+        private final long atMillis;
+        private final long sequence;
+        private final Runnable action;
+
+        private ScheduledEvent(final long atMillis, final long sequence, final Runnable action) {
+            this.atMillis = atMillis;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(final ScheduledEvent scheduledEvent) {
+            if (atMillis != scheduledEvent.atMillis) {
+                return Long.compare(atMillis, scheduledEvent.atMillis);
+            }
+            return Long.compare(sequence, scheduledEvent.sequence);
+        }
+    }
+}
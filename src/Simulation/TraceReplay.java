@@ -0,0 +1,298 @@
+package Simulation;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.ElevatorListener;
+import Model.Floor;
+import Model.HallCall;
+import Model.LogLevel;
+import Model.StateChange;
+import Model.StopSet;
+import Model.TraceEvent;
+import Model.Zone;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.TraceRecorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Usage: TraceReplay <trace> [speed] [results file]
+//        TraceReplay --diff <results file> <results file>
+// Feeds a recorded trace through fresh services of this build, ticking wherever the recording ticked. Speed 1 replays
+// in real time and 0 as fast as it can; waits are measured in trace time, so the speed does not change the results.
+// The results file has one line per hall call (trace time, recorded car, replayed car, wait in ms), so --diff can
+// compare two builds, and plain diff shows which calls changed
+public class TraceReplay implements TraceRecorder.RecordHandler, ElevatorListener {
+    // Each call is {trace nanos, recorded car, replayed car, wait nanos or -1}
+    private static final int AT = 0;
+    private static final int RECORDED = 1;
+    private static final int REPLAYED = 2;
+    private static final int WAIT = 3;
+
+    private final double speed;
+    private final List<long[]> calls;
+    private final Map<Long, List<long[]>> waitingByCar;
+    private final Map<Integer, List<long[]>> waitingByFloor;
+    // The recording's zones by number, and per car the zone its ELEVATOR_ZONE record is still collecting lobbies for
+    private final Map<Integer, Zone> zones;
+    private final Map<Integer, int[]> pendingZones;
+    private FloorService floorService;
+    private ElevatorService elevatorService;
+    private ElevatorManagementService elevatorManagementService;
+    private long replayStartNanos;
+    private long traceNanos;
+    private long ticks;
+
+    public TraceReplay(final double speed) {
+        this.speed = speed;
+        this.calls = new ArrayList<>();
+        this.waitingByCar = new HashMap<>();
+        this.waitingByFloor = new HashMap<>();
+        this.zones = new HashMap<>();
+        this.pendingZones = new HashMap<>();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || (args[0].equals("--diff") && args.length < 3)) {
+            System.out.println("Usage: TraceReplay <trace> [speed] [results file]");
+            System.out.println("       TraceReplay --diff <results file> <results file>");
+            System.exit(1);
+        }
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        if (args[0].equals("--diff")) {
+            diff(console, Paths.get(args[1]), Paths.get(args[2]));
+            System.exit(0);
+        }
+
+        TraceReplay traceReplay = new TraceReplay(args.length > 1 ? Double.parseDouble(args[1]) : 0);
+        long start = System.nanoTime();
+        int records = TraceRecorder.read(Paths.get(args[0]), traceReplay);
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        List<long[]> calls = traceReplay.calls;
+        long matching = calls.stream().filter(call -> call[RECORDED] == call[REPLAYED]).count();
+        console.printf("replayed %d records (%d hall calls, %d ticks) covering %.1f s of trace in %d ms%n", records,
+                calls.size(), traceReplay.ticks, traceReplay.traceNanos / 1e9, wallMillis);
+        console.printf("assigned as recorded: %d of %d (%.1f%%)%n", matching, calls.size(),
+                100.0 * matching / Math.max(calls.size(), 1));
+        printWaits(console, "replayed", waits(calls));
+
+        if (args.length > 2) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[2])))) {
+                for (long[] call: calls) {
+                    out.println(call[AT] + " " + call[RECORDED] + " " + call[REPLAYED] + " "
+                            + (call[WAIT] < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(call[WAIT])));
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    @Override
+    public void onHeader(final long startEpochMillis, final int tickPeriodMillis, final int lowestFloor,
+                         final int highestFloor) {
+        floorService = new FloorService();
+        floorService.addFloors(lowestFloor, highestFloor);
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("replay");
+        elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        // The replay does the ticking itself, so the services' own schedulers are never started
+        elevatorManagementService = new ElevatorManagementService(elevatorService, floorService, elevatorMetrics, 1);
+        elevatorService.addElevatorListener(this);
+        replayStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onRecord(final TraceEvent event, final long nanos, final int elevatorNumber, final int a,
+                         final int b, final int c, final int d) {
+        // Records from different threads can land slightly out of time order
+        traceNanos = Math.max(traceNanos, nanos);
+        pace();
+
+        switch (event) {
+            case ELEVATOR_ADDED:
+                // Floors added after the recording started are not in the trace, so neither are cars that need them
+                Floor floorAt = floorService.getFloor(b);
+                Floor minFloor = floorService.getFloor(c);
+                Floor maxFloor = floorService.getFloor(d);
+                Zone zone = zone(pendingZones.remove(elevatorNumber));
+                if (elevatorService.getElevator(elevatorNumber) != null || floorAt == null) {
+                    break;
+                }
+                // A zoned car rejoins its bank, so dispatch sees the same partitions and transfers as recorded
+                if (zone != null) {
+                    elevatorService.addElevator(elevatorNumber, a, floorAt, zone);
+                } else if (minFloor != null && maxFloor != null) {
+                    elevatorService.addElevator(elevatorNumber, a, floorAt, minFloor, maxFloor);
+                }
+                break;
+            case ELEVATOR_ZONE:
+                // {zone number, lowest, highest, lobbies so far, lobby...}
+                int[] pending = new int[4 + d];
+                pending[0] = a;
+                pending[1] = b;
+                pending[2] = c;
+                pendingZones.put(elevatorNumber, pending);
+                break;
+            case ZONE_LOBBY:
+                int[] collecting = pendingZones.get(elevatorNumber);
+                if (collecting != null && 4 + collecting[3] < collecting.length) {
+                    collecting[4 + collecting[3]++] = a;
+                }
+                break;
+            case TICK:
+                elevatorManagementService.moveElevators();
+                ticks++;
+                break;
+            case HALL_CALL:
+                HallCall hallCall = c == StopSet.NONE ? new HallCall(Direction.values()[a], b) : new HallCall(b, c);
+                long[] call = {traceNanos, elevatorNumber, elevatorManagementService.requestElevator(hallCall), -1};
+                calls.add(call);
+                if (call[REPLAYED] != -1) {
+                    waitingByCar.computeIfAbsent(key((int) call[REPLAYED], b), key -> new ArrayList<>()).add(call);
+                }
+                break;
+            case STOP_REQUESTED:
+                Floor floor = floorService.getFloor(a);
+                if (floor != null) {
+                    elevatorService.requestStop(elevatorNumber, floor);
+                }
+                break;
+            case ELEVATOR_STOPPED:
+                elevatorService.stopElevator(elevatorNumber);
+                break;
+            case CONDITION_CHANGED:
+                elevatorManagementService.changeElevatorCondition(elevatorNumber, Condition.values()[a]);
+                break;
+            case LOAD_CHANGED:
+                Elevator elevator = elevatorService.getElevator(elevatorNumber);
+                if (elevator != null && a > elevator.getCurrentLoad()) {
+                    elevator.increaseCurrentLoad(a - elevator.getCurrentLoad());
+                } else if (elevator != null && a < elevator.getCurrentLoad()) {
+                    elevator.reduceCurrentLoad(elevator.getCurrentLoad() - a);
+                }
+                break;
+        }
+    }
+
+    // A call's wait ends when its car reaches the floor; calls of a car taken out of service end with the first car
+    // to reach the floor, as dispatch has handed them on
+    @Override
+    public void onStateChanged(final Elevator elevator, final StateChange change, final int floorNumber,
+                               final int value) {
+        if (change == StateChange.ARRIVED) {
+            answer(waitingByCar.remove(key(elevator.getElevatorNumber(), floorNumber)));
+            answer(waitingByFloor.remove(floorNumber));
+        } else if (change == StateChange.CONDITION_CHANGED && value != Condition.WORKING.ordinal()) {
+            waitingByCar.entrySet().removeIf(entry -> {
+                if (entry.getKey() >> 32 != elevator.getElevatorNumber()) {
+                    return false;
+                }
+                waitingByFloor.computeIfAbsent((int) (long) entry.getKey(), floor -> new ArrayList<>())
+                        .addAll(entry.getValue());
+                return true;
+            });
+        }
+    }
+
+    // The zone the recording numbered so, built from the first car of it added
+    private Zone zone(final int[] pending) {
+        if (pending == null) {
+            return null;
+        }
+        return zones.computeIfAbsent(pending[0], number -> new Zone("zone-" + number, pending[1], pending[2],
+                Arrays.copyOfRange(pending, 4, 4 + pending[3])));
+    }
+
+    private void answer(final List<long[]> waiting) {
+        if (waiting != null) {
+            for (long[] call: waiting) {
+                call[WAIT] = traceNanos - call[AT];
+            }
+        }
+    }
+
+    private void pace() {
+        if (speed <= 0) {
+            return;
+        }
+        long due = replayStartNanos + (long) (traceNanos / speed);
+        for (long now = System.nanoTime(); now < due; now = System.nanoTime()) {
+            LockSupport.parkNanos(due - now);
+        }
+    }
+
+    private static long key(final int elevatorNumber, final int floorNumber) {
+        return (long) elevatorNumber << 32 | (floorNumber & 0xFFFFFFFFL);
+    }
+
+    private static long[] waits(final List<long[]> calls) {
+        return calls.stream().mapToLong(call -> call[WAIT] < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(call[WAIT]))
+                .toArray();
+    }
+
+    private static void printWaits(final PrintStream console, final String label, final long[] waitMillis) {
+        long[] answered = Arrays.stream(waitMillis).filter(wait -> wait >= 0).sorted().toArray();
+        if (answered.length == 0) {
+            console.printf("%-9s no call was answered, still waiting=%d%n", label, waitMillis.length);
+            return;
+        }
+        console.printf("%-9s wait avg=%.1f s p50=%.1f s p95=%.1f s max=%.1f s still waiting=%d%n", label,
+                Arrays.stream(answered).average().orElse(0) / 1000, answered[answered.length / 2] / 1000.0,
+                answered[(int) (answered.length * 0.95)] / 1000.0, answered[answered.length - 1] / 1000.0,
+                waitMillis.length - answered.length);
+    }
+
+    private static void diff(final PrintStream console, final Path before, final Path after) throws IOException {
+        List<long[]> beforeCalls = readResults(before);
+        List<long[]> afterCalls = readResults(after);
+        if (beforeCalls.size() != afterCalls.size()) {
+            console.printf("results cover %d and %d calls; comparing the first %d%n", beforeCalls.size(),
+                    afterCalls.size(), Math.min(beforeCalls.size(), afterCalls.size()));
+        }
+
+        int compared = Math.min(beforeCalls.size(), afterCalls.size());
+        int differing = 0;
+        for (int i = 0; i < compared; i++) {
+            if (beforeCalls.get(i)[REPLAYED] != afterCalls.get(i)[REPLAYED]) {
+                differing++;
+            }
+        }
+        console.printf("assigned differently: %d of %d (%.1f%%)%n", differing, compared,
+                100.0 * differing / Math.max(compared, 1));
+        printWaits(console, "before", beforeCalls.stream().mapToLong(call -> call[WAIT]).toArray());
+        printWaits(console, "after", afterCalls.stream().mapToLong(call -> call[WAIT]).toArray());
+    }
+
+    private static List<long[]> readResults(final Path path) throws IOException {
+        List<long[]> calls = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(path)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 4) {
+                    calls.add(new long[] {Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]), Long.parseLong(fields[3])});
+                }
+            }
+        }
+        return calls;
+    }
+}
@@ -0,0 +1,70 @@
+package Simulation;
+
+import Model.HallCall;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Poisson arrivals of riders with destinations. A pattern whose rate changes over the day is drawn at its peak rate
+// and each arrival kept with the pattern's rate at that moment (thinning), which is again a Poisson stream. Generators
+// with their own seeds can feed producers in parallel; together they offer the sum of their rates
+public class TrafficGenerator {
+    private final TrafficPattern pattern;
+    private final int lowestFloor;
+    private final int highestFloor;
+    private final int lobby;
+    private final double meanGapNanos;
+    private final long startOfDayMillis;
+    private final Random random;
+    private long nanos;
+
+    // Times are nanoseconds since the generator started, which is startOfDayMillis into the pattern's day
+    public TrafficGenerator(final TrafficPattern pattern, final int lowestFloor, final int highestFloor,
+                            final int lobby, final double peakCallsPerSecond, final long startOfDayMillis,
+                            final Random random) {
+        this.pattern = pattern;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.lobby = lobby;
+        this.meanGapNanos = TimeUnit.SECONDS.toNanos(1) / peakCallsPerSecond;
+        this.startOfDayMillis = startOfDayMillis;
+        this.random = random;
+    }
+
+    public TrafficGenerator(final TrafficPattern pattern, final int lowestFloor, final int highestFloor,
+                            final double peakCallsPerSecond, final long seed) {
+        this(pattern, lowestFloor, highestFloor, lowestFloor, peakCallsPerSecond, 0, new Random(seed));
+    }
+
+    // The next rider's call; getNanos() says when it arrives
+    public HallCall next() {
+        long timeOfDayMillis;
+        do {
+            nanos += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos) + 1;
+            timeOfDayMillis = startOfDayMillis + TimeUnit.NANOSECONDS.toMillis(nanos);
+        } while (random.nextDouble() >= pattern.getRate(timeOfDayMillis));
+
+        double roll = random.nextDouble();
+        int startingFloor = otherFloor();
+        int destinationFloor = otherFloor();
+        if (roll < pattern.getFromLobby(timeOfDayMillis)) {
+            startingFloor = lobby;
+        } else if (roll < pattern.getFromLobby(timeOfDayMillis) + pattern.getToLobby(timeOfDayMillis)) {
+            destinationFloor = lobby;
+        }
+        while (destinationFloor == startingFloor) {
+            destinationFloor = otherFloor();
+        }
+        return new HallCall(startingFloor, destinationFloor);
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Any floor but the lobby
+    private int otherFloor() {
+        int floorNumber = lowestFloor + random.nextInt(highestFloor - lowestFloor);
+        return floorNumber >= lobby ? floorNumber + 1 : floorNumber;
+    }
+}
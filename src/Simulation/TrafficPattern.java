@@ -0,0 +1,64 @@
+package Simulation;
+
+// Where riders start and end relative to the lobby, and how busy the building is at a time of day relative to its
+// busiest hour. The peak, lunch and inter-floor patterns keep one rate all day; an office day moves through them
+public enum TrafficPattern {
+    UP_PEAK(0.85, 0.05),
+    DOWN_PEAK(0.05, 0.85),
+    LUNCH(0.4, 0.4),
+    INTER_FLOOR(0.1, 0.1),
+    OFFICE_DAY(0, 0);
+
+    private static final long HOUR_MILLIS = 3600000;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    TrafficPattern(final double fromLobby, final double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    // Between 0 and 1
+    public double getRate(final long timeOfDayMillis) {
+        if (this != OFFICE_DAY) {
+            return 1;
+        }
+        int hour = hour(timeOfDayMillis);
+        if ((hour >= 8 && hour < 10) || (hour >= 17 && hour < 19)) {
+            return 1;
+        } else if (hour == 12) {
+            return 0.67;
+        } else if (hour >= 7 && hour < 20) {
+            return 0.27;
+        }
+        return 0.033;
+    }
+
+    // Share of riders starting at the lobby
+    public double getFromLobby(final long timeOfDayMillis) {
+        return this == OFFICE_DAY ? phase(timeOfDayMillis).fromLobby : fromLobby;
+    }
+
+    // Share of riders going to the lobby
+    public double getToLobby(final long timeOfDayMillis) {
+        return this == OFFICE_DAY ? phase(timeOfDayMillis).toLobby : toLobby;
+    }
+
+    private static TrafficPattern phase(final long timeOfDayMillis) {
+        int hour = hour(timeOfDayMillis);
+        if (hour >= 8 && hour < 10) {
+            return UP_PEAK;
+        } else if (hour == 12) {
+            return LUNCH;
+        } else if (hour >= 17 && hour < 19) {
+            return DOWN_PEAK;
+        }
+        return INTER_FLOOR;
+    }
+
+    private static int hour(final long timeOfDayMillis) {
+        return (int) (Math.floorMod(timeOfDayMillis, DAY_MILLIS) / HOUR_MILLIS);
+    }
+}
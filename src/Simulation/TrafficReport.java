@@ -0,0 +1,112 @@
+package Simulation;
+
+import Model.Floor;
+import Model.HallCall;
+import Model.LogLevel;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.PassengerFlow;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+// Usage: TrafficReport [pattern] [floors] [elevators] [capacity] [arrivals per minute to start at] [seed]
+// Sizes a fleet: offers the pattern's arrivals open loop at doubling rates, an hour each (a whole day for
+// OFFICE_DAY, whose rate is its busiest hour's), with cars that travel and dwell, and reports where riders' waits
+// blow up. A rate saturates the fleet once the 95th percentile wait passes three times the first rate's, or more
+// than 5% of riders are still waiting at the end
+public class TrafficReport {
+    private static final long TICK_MILLIS = 500;
+    private static final long FLOOR_MILLIS = 1500;
+    private static final long DWELL_MILLIS = 5000;
+    private static final long HOUR_MILLIS = 3600000;
+    private static final int MAX_STEPS = 12;
+
+    public static void main(String[] args) {
+        TrafficPattern pattern = args.length > 0 ? TrafficPattern.valueOf(args[0].toUpperCase(Locale.ROOT))
+                : TrafficPattern.UP_PEAK;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int elevators = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+        double arrivalsPerMinute = args.length > 4 ? Double.parseDouble(args[4]) : 10;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+        long runMillis = pattern == TrafficPattern.OFFICE_DAY ? 24 * HOUR_MILLIS : HOUR_MILLIS;
+
+        console.printf("%s floors=%d elevators=%d capacity=%d, %d min per rate%n", pattern, floors, elevators,
+                capacity, runMillis / 60000);
+        String rateName = pattern == TrafficPattern.OFFICE_DAY ? "peak arrivals" : "arrivals";
+        long firstP95 = -1;
+        double lastKeptUp = -1;
+        for (int step = 0; step < MAX_STEPS; step++, arrivalsPerMinute *= 2) {
+            PassengerFlow passengerFlow = run(pattern, floors, elevators, capacity, arrivalsPerMinute, runMillis,
+                    seed);
+            long p95 = passengerFlow.getWaitMillisAtPercentile(95);
+            double stillWaiting = (double) (passengerFlow.getRequested() - passengerFlow.getBoarded())
+                    / Math.max(passengerFlow.getRequested(), 1);
+            if (firstP95 < 0) {
+                firstP95 = Math.max(p95, TICK_MILLIS);
+            }
+            boolean saturated = p95 > 3 * firstP95 || stillWaiting > 0.05;
+
+            console.printf("%s=%.0f/min delivered=%.1f/min wait avg=%.1f s p95=%.1f s ride avg=%.1f s "
+                            + "still waiting=%.1f%%%s%n",
+                    rateName, arrivalsPerMinute, passengerFlow.getDelivered() * 60000.0 / runMillis,
+                    passengerFlow.getAverageWaitMillis() / 1000, p95 / 1000.0,
+                    passengerFlow.getAverageRideMillis() / 1000, 100 * stillWaiting, saturated ? " SATURATED" : "");
+            if (saturated) {
+                console.printf(lastKeptUp < 0 ? "the fleet is saturated at the first rate%n"
+                        : "the fleet saturates between %.0f and %.0f %s/min%n", lastKeptUp, arrivalsPerMinute,
+                        rateName);
+                break;
+            }
+            lastKeptUp = arrivalsPerMinute;
+        }
+        System.exit(0);
+    }
+
+    private static PassengerFlow run(final TrafficPattern pattern, final int floors, final int elevators,
+                                     final int capacity, final double arrivalsPerMinute, final long runMillis,
+                                     final long seed) {
+        SimulationEngine engine = new SimulationEngine(seed);
+        FloorService floorService = new FloorService();
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("traffic");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(elevatorService,
+                floorService, elevatorMetrics, 1);
+
+        floorService.addFloors(0, floors - 1);
+        Floor lobby = floorService.getFloor(0);
+        for (int i = 1; i <= elevators; i++) {
+            elevatorService.addElevator(i, capacity, lobby, lobby, floorService.getFloor(floors - 1));
+        }
+        PassengerFlow passengerFlow = new PassengerFlow(elevatorService, elevatorManagementService,
+                () -> engine.getClock().millis());
+
+        CarMotion carMotion = new CarMotion(elevatorService, FLOOR_MILLIS, DWELL_MILLIS);
+        engine.scheduleEvery(TICK_MILLIS, () -> {
+            carMotion.advance(engine.getClock().millis());
+            passengerFlow.redispatch();
+        });
+        TrafficGenerator trafficGenerator = new TrafficGenerator(pattern, 0, floors - 1, 0, arrivalsPerMinute / 60,
+                0, engine.getRandom());
+        scheduleArrival(engine, passengerFlow, trafficGenerator);
+        engine.runUntil(runMillis);
+        return passengerFlow;
+    }
+
+    // Riders arrive when the generator says, however far behind the cars are
+    private static void scheduleArrival(final SimulationEngine engine, final PassengerFlow passengerFlow,
+                                        final TrafficGenerator trafficGenerator) {
+        HallCall ride = trafficGenerator.next();
+        engine.schedule(trafficGenerator.getNanos() / 1000000, () -> {
+            passengerFlow.requestRide(ride.getStartingFloor(), ride.getDestinationFloor());
+            scheduleArrival(engine, passengerFlow, trafficGenerator);
+        });
+    }
+}
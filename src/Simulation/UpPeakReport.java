@@ -0,0 +1,105 @@
+package Simulation;
+
+import Model.Floor;
+import Model.LogLevel;
+import Service.DispatchStrategy;
+import Service.ElevatorManagementService;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.EtaDispatchStrategy;
+import Service.EventJournal;
+import Service.FloorService;
+import Service.NearestCarDispatchStrategy;
+import Service.PassengerFlow;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+// Usage: UpPeakReport [seed] [floors] [elevators] [capacity] [passengers per minute]
+// Morning up-peak: most riders enter at the lobby. Each dispatch strategy runs on the same arrivals ignoring load,
+// skipping only full cars, and skipping cars past 80% of capacity
+public class UpPeakReport {
+    private static final long TICK_MILLIS = 1000;
+    private static final long RUN_MILLIS = 3600000;
+    private static final double LOBBY_SHARE = 0.85;
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int elevators = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+        double passengersPerMinute = args.length > 4 ? Double.parseDouble(args[4]) : 90;
+
+        EventJournal.getInstance().setLevel(LogLevel.OFF);
+        PrintStream console = System.out;
+
+        console.printf("up-peak floors=%d elevators=%d capacity=%d arrivals=%.0f/min for %d min%n",
+                floors, elevators, capacity, passengersPerMinute, RUN_MILLIS / 60000);
+        double[] fullLoadFractions = {Double.MAX_VALUE, 1, 0.8};
+        for (double fullLoadFraction: fullLoadFractions) {
+            run(console, "nearest", new NearestCarDispatchStrategy(), fullLoadFraction,
+                    seed, floors, elevators, capacity, passengersPerMinute);
+        }
+        for (double fullLoadFraction: fullLoadFractions) {
+            boolean loadBlind = fullLoadFraction == Double.MAX_VALUE;
+            run(console, "eta", new EtaDispatchStrategy(1.5, 8, loadBlind ? 0 : 8), fullLoadFraction,
+                    seed, floors, elevators, capacity, passengersPerMinute);
+        }
+        System.exit(0);
+    }
+
+    private static void run(final PrintStream console, final String name, final DispatchStrategy dispatchStrategy,
+                            final double fullLoadFraction, final long seed, final int floors, final int elevators,
+                            final int capacity, final double passengersPerMinute) {
+        SimulationEngine engine = new SimulationEngine(seed);
+        FloorService floorService = new FloorService();
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("up-peak");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(elevatorService,
+                floorService, elevatorMetrics, 1);
+        elevatorManagementService.setDispatchStrategy(dispatchStrategy);
+        elevatorService.setFullLoadFraction(fullLoadFraction);
+
+        for (int i = 0; i < floors; i++) {
+            floorService.addFloor(i);
+        }
+        Floor lobby = floorService.getFloor(0);
+        for (int i = 1; i <= elevators; i++) {
+            elevatorService.addElevator(i, capacity, lobby, lobby, floorService.getFloor(floors - 1));
+        }
+        PassengerFlow passengerFlow = new PassengerFlow(elevatorService, elevatorManagementService,
+                () -> engine.getClock().millis());
+
+        // Riders left behind call again once the full car has pulled away
+        engine.scheduleEvery(TICK_MILLIS, () -> {
+            elevatorManagementService.moveElevators();
+            passengerFlow.redispatch();
+        });
+        scheduleArrival(engine, passengerFlow, floors, 60000 / passengersPerMinute);
+        engine.runUntil(RUN_MILLIS);
+
+        double minutes = RUN_MILLIS / 60000.0;
+        console.printf("%-7s skip=%-5s delivered=%.1f/min overflow=%.1f%% wait avg=%.1f s ride avg=%.1f s "
+                        + "still waiting=%d%n",
+                name, fullLoadFraction == Double.MAX_VALUE ? "never" : String.valueOf(fullLoadFraction), passengerFlow.getDelivered() / minutes,
+                100.0 * passengerFlow.getOverflows() / Math.max(passengerFlow.getRequested(), 1),
+                passengerFlow.getAverageWaitMillis() / 1000, passengerFlow.getAverageRideMillis() / 1000,
+                passengerFlow.getRequested() - passengerFlow.getBoarded());
+    }
+
+    private static void scheduleArrival(final SimulationEngine engine, final PassengerFlow passengerFlow,
+                                        final int floors, final double meanGapMillis) {
+        Random random = engine.getRandom();
+        engine.scheduleAfter((long) (-Math.log(1 - random.nextDouble()) * meanGapMillis), () -> {
+            int startingFloor = random.nextDouble() < LOBBY_SHARE ? 0 : 1 + random.nextInt(floors - 1);
+            int destinationFloor = 1 + random.nextInt(floors - 1);
+            if (startingFloor != 0 && random.nextBoolean()) {
+                destinationFloor = 0;
+            }
+            if (destinationFloor != startingFloor) {
+                passengerFlow.requestRide(startingFloor, destinationFloor);
+            }
+            scheduleArrival(engine, passengerFlow, floors, meanGapMillis);
+        });
+    }
+}
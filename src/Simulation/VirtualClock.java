@@ -0,0 +1,15 @@
+package Simulation;
+
+public class VirtualClock {
+    private long nowMillis;
+
+    public long millis() {
+        return nowMillis;
+    }
+
+    void advanceTo(final long millis) {
+        if (millis > nowMillis) {
+            this.nowMillis = millis;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package Persistence;
+
+import Model.Condition;
+import Model.Direction;
+import Model.Elevator;
+import Model.Zone;
+import Service.ElevatorMetrics;
+import Service.ElevatorService;
+import Service.FloorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElevatorPersistenceTest {
+
+    @Test
+    void carKeepsMovingWhenNoSegmentCanBeOpened(@TempDir final Path directory) throws IOException {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 10);
+        ElevatorService elevatorService = new ElevatorService(floorService, new ElevatorMetrics("persistence-test"));
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(10));
+        ElevatorPersistence elevatorPersistence = new ElevatorPersistence(elevatorService, floorService, directory,
+                StateJournal.RECORD_SIZE * 2);
+        elevatorPersistence.start(60_000);
+
+        // start() and its checkpoint opened segments 1 and 2; taking the next name makes the rotation fail
+        Files.createFile(directory.resolve("journal-3.log"));
+        Elevator elevator = elevatorService.getElevator(1);
+        for (int floor = 1; floor <= 5; floor++) {
+            elevatorService.requestStop(1, floorService.getFloor(floor));
+            elevatorService.moveToNextFloor(elevator);
+        }
+        elevatorPersistence.stop();
+
+        assertEquals(5, elevator.getFloorAt().getFloorNumber());
+    }
+
+    @Test
+    void zonedCarsComeBackInTheirZone(@TempDir final Path directory) throws IOException {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 60);
+        ElevatorService elevatorService = new ElevatorService(floorService, new ElevatorMetrics("persistence-test"));
+        Zone high = new Zone("high", 31, 60, 0);
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), high);
+        elevatorService.addElevator(2, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(60));
+        ElevatorPersistence elevatorPersistence = new ElevatorPersistence(elevatorService, floorService, directory);
+        elevatorPersistence.start(60_000);
+        // Car 1 is in the snapshot start() wrote; car 3 only in the journal after it
+        elevatorService.addElevator(3, 10, floorService.getFloor(40), high);
+        elevatorPersistence.stop();
+
+        FloorService recoveredFloors = new FloorService();
+        recoveredFloors.addFloors(0, 60);
+        ElevatorService recoveredService = new ElevatorService(recoveredFloors,
+                new ElevatorMetrics("persistence-test"));
+        new ElevatorPersistence(recoveredService, recoveredFloors, directory).recover();
+
+        Elevator snapshotted = recoveredService.getElevator(1);
+        Elevator journaled = recoveredService.getElevator(3);
+        assertEquals("high", snapshotted.getZone().getName());
+        assertSame(snapshotted.getZone(), journaled.getZone());
+        assertEquals(40, journaled.getFloorAt().getFloorNumber());
+        assertFalse(journaled.serves(20));
+        assertTrue(journaled.serves(0));
+        assertNull(recoveredService.getElevator(2).getZone());
+        assertEquals(1, recoveredService.getZoneRouter().getZones().size());
+    }
+
+    @Test
+    void recoveredFleetMatchesTheOneThatStopped(@TempDir final Path directory) throws IOException {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 20);
+        ElevatorService elevatorService = new ElevatorService(floorService, new ElevatorMetrics("persistence-test"));
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(20));
+        elevatorService.addElevator(2, 8, floorService.getFloor(0), floorService.getFloor(2),
+                floorService.getFloor(18));
+        // Car 1 reaches the snapshot with a route, a waiting rider and passengers
+        Elevator first = elevatorService.getElevator(1);
+        first.setFloorAt(floorService.getFloor(2));
+        first.addStoppingFloor(5);
+        first.addDestination(8, 15);
+        first.setDirection(Direction.UP);
+        first.increaseCurrentLoad(3);
+        ElevatorPersistence elevatorPersistence = new ElevatorPersistence(elevatorService, floorService, directory);
+        elevatorPersistence.start(60_000);
+
+        // Everything after start() reaches only the journal
+        first.moveTo(floorService.getFloor(5));
+        first.addDestination(12, 3);
+        Elevator second = elevatorService.getElevator(2);
+        second.setFloorAt(floorService.getFloor(7));
+        second.addStoppingFloor(3);
+        second.addDestination(4, 2);
+        second.setDirection(Direction.DOWN);
+        second.increaseCurrentLoad(6);
+        second.changeCondition(Condition.NOT_WORKING);
+        Map<Integer, String> stopped = describe(elevatorService);
+        // A crash while this last record was written leaves it without its type byte
+        second.reduceCurrentLoad(4);
+        elevatorPersistence.stop();
+        tearLastRecord(directory);
+
+        FloorService recoveredFloors = new FloorService();
+        recoveredFloors.addFloors(0, 20);
+        ElevatorService recoveredService = new ElevatorService(recoveredFloors,
+                new ElevatorMetrics("persistence-test"));
+        new ElevatorPersistence(recoveredService, recoveredFloors, directory).recover();
+
+        assertEquals(stopped, describe(recoveredService));
+    }
+
+    private static Map<Integer, String> describe(final ElevatorService elevatorService) {
+        Map<Integer, String> fleet = new TreeMap<>();
+        for (Elevator elevator: elevatorService.getElevators()) {
+            StringBuilder destinations = new StringBuilder();
+            new TreeMap<>(elevator.getDestinationsByPickup()).forEach((pickupFloor, stops) ->
+                    destinations.append(pickupFloor).append(Arrays.toString(stops)));
+            fleet.put(elevator.getElevatorNumber(), "floor=" + elevator.getFloorAt().getFloorNumber()
+                    + " direction=" + elevator.getDirection() + " condition=" + elevator.getElevatorCondition()
+                    + " load=" + elevator.getCurrentLoad() + "/" + elevator.getMaxCapacity()
+                    + " range=" + elevator.getMinFloor().getFloorNumber() + ".."
+                    + elevator.getMaxFloor().getFloorNumber()
+                    + " stops=" + Arrays.toString(elevator.getStoppingFloors().toArray())
+                    + " destinations=" + destinations);
+        }
+        return fleet;
+    }
+
+    private static void tearLastRecord(final Path directory) throws IOException {
+        Path segment;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segment = paths.filter(path -> path.getFileName().toString().startsWith("journal-"))
+                    .max((left, right) -> Long.compare(segmentNumber(left), segmentNumber(right))).orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long last = -1;
+            for (long offset = 0; offset + StateJournal.RECORD_SIZE <= file.length();
+                 offset += StateJournal.RECORD_SIZE) {
+                file.seek(offset);
+                if (file.readByte() == 0) {
+                    break;
+                }
+                last = offset;
+            }
+            assertTrue(last >= 0);
+            file.seek(last);
+            file.writeByte(0);
+        }
+    }
+
+    private static long segmentNumber(final Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+}
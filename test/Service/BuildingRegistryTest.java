@@ -0,0 +1,82 @@
+package Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildingRegistryTest {
+    private BuildingRegistry buildingRegistry;
+
+    @BeforeEach
+    void setUp() {
+        buildingRegistry = new BuildingRegistry(1, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buildingRegistry.shutdown();
+    }
+
+    @Test
+    void removeUnregistersMBean() throws JMException {
+        ObjectName name = new ObjectName("ElevatorManagementSystem:type=Metrics,building="
+                + ObjectName.quote("registry-test"));
+        buildingRegistry.addBuilding("registry-test");
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        assertTrue(buildingRegistry.removeBuilding("registry-test"));
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertNull(buildingRegistry.getBuilding("registry-test"));
+        assertFalse(buildingRegistry.removeBuilding("registry-test"));
+    }
+
+    @Test
+    void buildingsKeepTheirOwnJournal() {
+        Building first = buildingRegistry.addBuilding("journal-a");
+        Building second = buildingRegistry.addBuilding("journal-b");
+
+        assertSame(first, buildingRegistry.addBuilding("journal-a"));
+        assertNotSame(first.getEventJournal(), second.getEventJournal());
+        assertNotSame(EventJournal.getInstance(), first.getEventJournal());
+        assertSame(first.getEventJournal(), first.getElevatorManagementService().getEventJournal());
+    }
+
+    @Test
+    void concurrentAddsOfOneNameShareTheBuilding() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Building>> adds = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                adds.add(() -> buildingRegistry.addBuilding("concurrent"));
+            }
+            Building first = null;
+            for (Future<Building> added: executor.invokeAll(adds)) {
+                if (first == null) {
+                    first = added.get();
+                }
+                assertSame(first, added.get());
+            }
+            assertEquals(1, buildingRegistry.getBuildings().size());
+        } finally {
+            executor.shutdown();
+            buildingRegistry.removeBuilding("concurrent");
+        }
+    }
+}
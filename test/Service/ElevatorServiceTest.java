@@ -0,0 +1,79 @@
+package Service;
+
+import Model.Direction;
+import Model.Elevator;
+import Model.StateChange;
+import Model.Zone;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ElevatorServiceTest {
+
+    @Test
+    void firstCarInZoneAboveFloorZero() {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(60, 120);
+        ElevatorService elevatorService = new ElevatorService(floorService, new ElevatorMetrics("test"));
+
+        elevatorService.addElevator(1, 10, floorService.getFloor(60), new Zone("high", 61, 120, 60));
+
+        assertNotNull(elevatorService.getElevator(1));
+        assertEquals(1, elevatorService.findNearestElevator(Direction.UP, 90).getElevator().getElevatorNumber());
+    }
+
+    @Test
+    void capacityAndNumberChangesReachTheIndexAndMetrics() {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 10);
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("test");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(10));
+        Elevator elevator = elevatorService.getElevator(1);
+        elevator.increaseCurrentLoad(5);
+
+        int version = elevator.getSnapshot().getVersion();
+        elevator.setElevatorNumber(2);
+        assertEquals(version + 1, elevator.getSnapshot().getVersion());
+        assertEquals(2, elevatorService.findNearestElevator(Direction.UP, 5).getElevator().getElevatorNumber());
+        elevatorMetrics.recordArrival(2, 0, 3);
+        assertEquals(1, elevatorMetrics.getStopsServed());
+
+        // Half full of 10 is offered calls; the same load in a car of 6 is past the full-load fraction
+        elevator.setMaxCapacity(6);
+        assertEquals(version + 2, elevator.getSnapshot().getVersion());
+        assertNull(elevatorService.findNearestElevator(Direction.UP, 5));
+    }
+
+    @Test
+    void scanTurnaroundIsNoArrival() {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 10);
+        ElevatorService elevatorService = new ElevatorService(floorService, new ElevatorMetrics("test"));
+        elevatorService.setStopSchedulingStrategy(new ScanScheduling());
+        elevatorService.addElevator(1, 10, floorService.getFloor(5), floorService.getFloor(0),
+                floorService.getFloor(10));
+        Elevator elevator = elevatorService.getElevator(1);
+        List<Integer> arrivals = new ArrayList<>();
+        elevatorService.addElevatorListener((car, change, floorNumber, value) -> {
+            if (change == StateChange.ARRIVED) {
+                arrivals.add(floorNumber);
+            }
+        });
+        elevator.setDirection(Direction.DOWN);
+        elevator.addStoppingFloor(8);
+
+        // Heading down with the only stop above, SCAN runs to floor 0 before it reverses
+        elevatorService.moveToNextFloor(elevator);
+        assertEquals(0, elevator.getFloorAt().getFloorNumber());
+        elevatorService.moveToNextFloor(elevator);
+        assertEquals(8, elevator.getFloorAt().getFloorNumber());
+        assertEquals(List.of(8), arrivals);
+    }
+}
@@ -0,0 +1,45 @@
+package Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FloorServiceTest {
+
+    @Test
+    void firstFloorAboveZero() {
+        FloorService floorService = new FloorService();
+        floorService.addFloor(1);
+        floorService.addFloor(3);
+
+        assertNotNull(floorService.getFloor(1));
+        assertNull(floorService.getFloor(2));
+        assertNotNull(floorService.getFloor(3));
+        assertEquals(1, floorService.getLowestFloor());
+        assertEquals(3, floorService.getHighestFloor());
+        assertEquals(2, floorService.getFloorCount());
+    }
+
+    @Test
+    void firstRangeAboveZero() {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(61, 120);
+        floorService.addFloor(-2);
+
+        assertNull(floorService.getFloor(0));
+        assertEquals(-2, floorService.getLowestFloor());
+        assertEquals(120, floorService.getHighestFloor());
+        assertEquals(61, floorService.getFloorCount());
+    }
+
+    @Test
+    void loaderSpecWithoutFloorZero() {
+        FloorService floorService = new FloorService();
+
+        assertEquals(223, FloorLoader.load(floorService, "-3..-1,1..220"));
+        assertNull(floorService.getFloor(0));
+        assertNotNull(floorService.getFloor(220));
+    }
+}
@@ -0,0 +1,47 @@
+package Service;
+
+import Model.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HallCallBatcherTest {
+
+    @Test
+    void failedDispatchFailsOnlyItsCall() throws Exception {
+        FloorService floorService = new FloorService();
+        floorService.addFloors(0, 10);
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("batcher-test");
+        ElevatorService elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        ElevatorManagementService elevatorManagementService = new ElevatorManagementService(elevatorService,
+                floorService, elevatorMetrics, 1);
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(10));
+        DispatchStrategy nearestCar = new NearestCarDispatchStrategy();
+        elevatorManagementService.setDispatchStrategy((service, hallCall) -> {
+            if (hallCall.getStartingFloor() == 3) {
+                throw new IllegalStateException("broken strategy");
+            }
+            return nearestCar.selectElevator(service, hallCall);
+        });
+
+        HallCallBatcher hallCallBatcher = elevatorManagementService.getHallCallBatcher();
+        hallCallBatcher.start();
+        try {
+            CompletableFuture<Integer> failing = elevatorManagementService.submitHallCall(Direction.UP, 3);
+            CompletableFuture<Integer> answered = elevatorManagementService.submitHallCall(Direction.UP, 5);
+            assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+            assertEquals(1, answered.get(5, TimeUnit.SECONDS));
+
+            // The scheduled dispatch survived the failure
+            assertEquals(1, elevatorManagementService.submitHallCall(Direction.UP, 6).get(5, TimeUnit.SECONDS));
+        } finally {
+            hallCallBatcher.stop();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestEndpointTest {
+    private FloorService floorService;
+    private ElevatorService elevatorService;
+    private ElevatorManagementService elevatorManagementService;
+    private RequestFrontEnd requestFrontEnd;
+    private RequestEndpoint requestEndpoint;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        floorService = new FloorService();
+        floorService.addFloors(0, 10);
+        ElevatorMetrics elevatorMetrics = new ElevatorMetrics("endpoint-test");
+        elevatorService = new ElevatorService(floorService, elevatorMetrics);
+        elevatorManagementService = new ElevatorManagementService(elevatorService, floorService, elevatorMetrics, 1);
+        elevatorService.addElevator(1, 10, floorService.getFloor(0), floorService.getFloor(0),
+                floorService.getFloor(5));
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        requestFrontEnd = new RequestFrontEnd(elevatorManagementService, elevatorService, floorService, 100, 5000);
+        requestEndpoint = new RequestEndpoint(requestFrontEnd, port);
+        requestEndpoint.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestEndpoint.stop();
+        requestFrontEnd.shutdown();
+        elevatorManagementService.stop();
+    }
+
+    @Test
+    void failedCallIsAnswered() throws IOException {
+        elevatorManagementService.setDispatchStrategy((service, hallCall) -> {
+            throw new IllegalStateException("dispatch failed");
+        });
+
+        assertEquals("500 -1", get("/call?floor=3&direction=UP"));
+    }
+
+    @Test
+    void stopAnswersWithTheCarOrMinusOne() throws IOException {
+        assertEquals("200 1", get("/stop?elevator=1&floor=4"));
+        assertEquals("200 -1", get("/stop?elevator=7&floor=4"));
+        assertEquals("200 -1", get("/stop?elevator=1&floor=9"));
+    }
+
+    private String get(final String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path)
+                .openConnection();
+        connection.setReadTimeout(5000);
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return status + " " + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}